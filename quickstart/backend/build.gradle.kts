@@ -37,20 +37,37 @@ dependencies {
     implementation("io.opentelemetry.instrumentation:opentelemetry-instrumentation-annotations:${Deps.opentelemetry.version}")
     implementation("net.logstash.logback:logstash-logback-encoder:8.0")
     implementation(Deps.springBoot.actuator)
+    implementation("com.github.ben-manes.caffeine:caffeine:3.1.8")
     implementation(Deps.springBoot.oauth2Client)
     implementation(Deps.springBoot.oauth2ResourceServer)
     implementation(Deps.springBoot.security)
     runtimeOnly("org.postgresql:postgresql:42.7.3")
     runtimeOnly(Deps.grpc.api)
-    runtimeOnly(Deps.grpc.netty)
+    implementation(Deps.grpc.netty)
 
     testImplementation(Deps.springBoot.test)
+    testImplementation("org.openjdk.jmh:jmh-core:1.37")
+    testAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 repositories {
     mavenCentral()
 }
 
+tasks.withType<Test> {
+    useJUnitPlatform()
+}
+
+// JMH benchmarks live in the test source set; select them with -Pjmh=<regex>, e.g. -Pjmh=OrderBookAggregation
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs JMH benchmarks from the test source set"
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass = "org.openjdk.jmh.Main"
+    // -Pjmh="<regex> [JMH options]", e.g. -Pjmh="LoanScan -prof gc"
+    args(project.findProperty("jmh")?.toString()?.split(" ")?.filter { it.isNotBlank() } ?: emptyList<String>())
+}
+
 application {
     mainClass = "com.digitalasset.quickstart.App"
 }
@@ -0,0 +1,36 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Disclosure of platform LoanRequests to lender tenants (bound from {@code disclosure.*}).
+ */
+@Component
+@ConfigurationProperties(prefix = "disclosure")
+public class DisclosureConfig {
+
+    // Maximum number of disclosure transactions in flight at the same time
+    private int maxInFlight = 4;
+    // LoanRequest_DiscloseToLender exercises submitted together in one transaction
+    private int batchSize = 20;
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
@@ -14,6 +14,13 @@ public class LedgerConfig {
     private int port = 6865;
     private String applicationId;
     private String registryBaseUri;
+    // How long a command submitted with submitAndTrack may wait for its completion
+    private long completionTimeoutMs = 60000;
+    // The backend access token is refreshed this long before its exp claim
+    private long tokenRefreshMarginMs = 30000;
+    // Lifetime assumed for access tokens without a readable exp claim
+    private long tokenFallbackLifetimeMs = 300000;
+    private Channel channel = new Channel();
 
     public String getHost() {
         return host;
@@ -46,4 +53,107 @@ public class LedgerConfig {
     public void setRegistryBaseUri(String registryBaseUri) {
         this.registryBaseUri = registryBaseUri;
     }
+
+    public long getCompletionTimeoutMs() {
+        return completionTimeoutMs;
+    }
+
+    public void setCompletionTimeoutMs(long completionTimeoutMs) {
+        this.completionTimeoutMs = completionTimeoutMs;
+    }
+
+    public long getTokenRefreshMarginMs() {
+        return tokenRefreshMarginMs;
+    }
+
+    public void setTokenRefreshMarginMs(long tokenRefreshMarginMs) {
+        this.tokenRefreshMarginMs = tokenRefreshMarginMs;
+    }
+
+    public long getTokenFallbackLifetimeMs() {
+        return tokenFallbackLifetimeMs;
+    }
+
+    public void setTokenFallbackLifetimeMs(long tokenFallbackLifetimeMs) {
+        this.tokenFallbackLifetimeMs = tokenFallbackLifetimeMs;
+    }
+
+    public Channel getChannel() {
+        return channel;
+    }
+
+    public void setChannel(Channel channel) {
+        this.channel = channel;
+    }
+
+    /** gRPC connection(s) to the participant's Ledger API (bound from {@code ledger.channel.*}). */
+    public static class Channel {
+        // Number of connections calls are spread over round-robin; one HTTP/2 connection serialises all frames
+        private int poolSize = 1;
+        // HTTP/2 keepalive ping interval (0 = disabled); must not be below the server's permitted minimum
+        private long keepAliveTimeMs = 0;
+        private long keepAliveTimeoutMs = 20000;
+        private boolean keepAliveWithoutCalls = false;
+        private int maxInboundMessageSize = 16 * 1024 * 1024;
+        // Per-stream HTTP/2 flow-control window in bytes
+        private int flowControlWindow = 1024 * 1024;
+        // Threads running call callbacks and future completions (0 = gRPC's shared cached pool)
+        private int executorThreads = 4;
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public long getKeepAliveTimeMs() {
+            return keepAliveTimeMs;
+        }
+
+        public void setKeepAliveTimeMs(long keepAliveTimeMs) {
+            this.keepAliveTimeMs = keepAliveTimeMs;
+        }
+
+        public long getKeepAliveTimeoutMs() {
+            return keepAliveTimeoutMs;
+        }
+
+        public void setKeepAliveTimeoutMs(long keepAliveTimeoutMs) {
+            this.keepAliveTimeoutMs = keepAliveTimeoutMs;
+        }
+
+        public boolean isKeepAliveWithoutCalls() {
+            return keepAliveWithoutCalls;
+        }
+
+        public void setKeepAliveWithoutCalls(boolean keepAliveWithoutCalls) {
+            this.keepAliveWithoutCalls = keepAliveWithoutCalls;
+        }
+
+        public int getMaxInboundMessageSize() {
+            return maxInboundMessageSize;
+        }
+
+        public void setMaxInboundMessageSize(int maxInboundMessageSize) {
+            this.maxInboundMessageSize = maxInboundMessageSize;
+        }
+
+        public int getFlowControlWindow() {
+            return flowControlWindow;
+        }
+
+        public void setFlowControlWindow(int flowControlWindow) {
+            this.flowControlWindow = flowControlWindow;
+        }
+
+        public int getExecutorThreads() {
+            return executorThreads;
+        }
+
+        public void setExecutorThreads(int executorThreads) {
+            this.executorThreads = executorThreads;
+        }
+    }
 }
@@ -0,0 +1,46 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Market maker settings (bound from {@code market-maker.*}).
+ * The fallback interval itself is read by the scheduler from {@code market-maker.fallback-interval-ms}.
+ */
+@Component
+@ConfigurationProperties(prefix = "market-maker")
+public class MarketMakerConfig {
+
+    private long fallbackIntervalMs = 30000;
+    // Maximum number of match commands submitted to the ledger at the same time
+    private int maxInFlight = 8;
+    // Maximum number of bid/ask pairs per MatchOrdersBatch command
+    private int batchSize = 50;
+
+    public long getFallbackIntervalMs() {
+        return fallbackIntervalMs;
+    }
+
+    public void setFallbackIntervalMs(long fallbackIntervalMs) {
+        this.fallbackIntervalMs = fallbackIntervalMs;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
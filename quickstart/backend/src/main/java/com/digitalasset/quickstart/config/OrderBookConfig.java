@@ -0,0 +1,95 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "order-book")
+public class OrderBookConfig {
+
+    /** Where order book tiers are aggregated when they are built directly from PQS. */
+    public enum Aggregation {
+        /** GROUP BY over payload fields in Postgres; only tier rows are transferred. */
+        SQL,
+        /** Stream each order's rate, duration and amount, projected in SQL, and sum them in Java. */
+        JAVA
+    }
+
+    private Aggregation aggregation = Aggregation.SQL;
+    private Stream stream = new Stream();
+
+    public Aggregation getAggregation() {
+        return aggregation;
+    }
+
+    public void setAggregation(Aggregation aggregation) {
+        this.aggregation = aggregation;
+    }
+
+    public Stream getStream() {
+        return stream;
+    }
+
+    public void setStream(Stream stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * Server-sent event stream of order book changes (bound from {@code order-book.stream.*}).
+     * The heartbeat and rebuild intervals themselves are read by the scheduler from
+     * {@code order-book.stream.heartbeat-interval-ms} and {@code order-book.stream.rebuild-interval-ms}.
+     */
+    public static class Stream {
+        private int maxSubscribers = 1000;
+        // Threads writing events to subscribers; a slow subscriber only ever holds one of them
+        private int senderThreads = 2;
+        // Connections are closed after this long and the browser reconnects (0 = never)
+        private long timeoutMs = 1800000;
+        private long heartbeatIntervalMs = 15000;
+        // Only used with the PQS change watcher disabled: how often the book is rebuilt for subscribers
+        private long rebuildIntervalMs = 5000;
+
+        public int getMaxSubscribers() {
+            return maxSubscribers;
+        }
+
+        public void setMaxSubscribers(int maxSubscribers) {
+            this.maxSubscribers = maxSubscribers;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+
+        public long getTimeoutMs() {
+            return timeoutMs;
+        }
+
+        public void setTimeoutMs(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+
+        public long getHeartbeatIntervalMs() {
+            return heartbeatIntervalMs;
+        }
+
+        public void setHeartbeatIntervalMs(long heartbeatIntervalMs) {
+            this.heartbeatIntervalMs = heartbeatIntervalMs;
+        }
+
+        public long getRebuildIntervalMs() {
+            return rebuildIntervalMs;
+        }
+
+        public void setRebuildIntervalMs(long rebuildIntervalMs) {
+            this.rebuildIntervalMs = rebuildIntervalMs;
+        }
+    }
+}
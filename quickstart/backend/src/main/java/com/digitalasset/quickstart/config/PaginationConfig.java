@@ -0,0 +1,34 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Page sizes of the cursor-paginated list endpoints (bound from {@code pagination.*}). */
+@Component
+@ConfigurationProperties(prefix = "pagination")
+public class PaginationConfig {
+
+    // Page size when the client passes a cursor but no limit (neither returns the unpaged listing)
+    private int defaultLimit = 500;
+    // Larger limits requested by clients are capped to this
+    private int maxLimit = 1000;
+
+    public int getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    public void setDefaultLimit(int defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+}
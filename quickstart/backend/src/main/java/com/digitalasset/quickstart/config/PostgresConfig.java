@@ -14,6 +14,7 @@ public class PostgresConfig {
     private String database = "postgres";
     private String username = "postgres";
     private String password = "postgres";
+    private Pool pool = new Pool();
 
     // Getters and Setters
     public String getHost() {
@@ -55,5 +56,130 @@ public class PostgresConfig {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    public Pool getPool() {
+        return pool;
+    }
+
+    public void setPool(Pool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Connection pool settings for the PQS data source (bound from {@code postgres.pool.*}).
+     * When {@code enabled} is false, a non-pooled data source is used and every query opens a new connection.
+     */
+    public static class Pool {
+        private boolean enabled = true;
+        private int minimumIdle = 2;
+        private int maximumPoolSize = 10;
+        private long connectionTimeoutMs = 5_000;
+        private long idleTimeoutMs = 600_000;
+        private long maxLifetimeMs = 1_800_000;
+        private long keepaliveTimeMs = 0;
+        private long validationTimeoutMs = 2_000;
+        // 0 disables leak detection
+        private long leakDetectionThresholdMs = 60_000;
+        // pgjdbc server-side prepared statement cache
+        private int prepareThreshold = 5;
+        private int preparedStatementCacheQueries = 256;
+        private int preparedStatementCacheSizeMiB = 5;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMinimumIdle() {
+            return minimumIdle;
+        }
+
+        public void setMinimumIdle(int minimumIdle) {
+            this.minimumIdle = minimumIdle;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public long getConnectionTimeoutMs() {
+            return connectionTimeoutMs;
+        }
+
+        public void setConnectionTimeoutMs(long connectionTimeoutMs) {
+            this.connectionTimeoutMs = connectionTimeoutMs;
+        }
+
+        public long getIdleTimeoutMs() {
+            return idleTimeoutMs;
+        }
+
+        public void setIdleTimeoutMs(long idleTimeoutMs) {
+            this.idleTimeoutMs = idleTimeoutMs;
+        }
+
+        public long getMaxLifetimeMs() {
+            return maxLifetimeMs;
+        }
+
+        public void setMaxLifetimeMs(long maxLifetimeMs) {
+            this.maxLifetimeMs = maxLifetimeMs;
+        }
+
+        public long getKeepaliveTimeMs() {
+            return keepaliveTimeMs;
+        }
+
+        public void setKeepaliveTimeMs(long keepaliveTimeMs) {
+            this.keepaliveTimeMs = keepaliveTimeMs;
+        }
+
+        public long getValidationTimeoutMs() {
+            return validationTimeoutMs;
+        }
+
+        public void setValidationTimeoutMs(long validationTimeoutMs) {
+            this.validationTimeoutMs = validationTimeoutMs;
+        }
+
+        public long getLeakDetectionThresholdMs() {
+            return leakDetectionThresholdMs;
+        }
+
+        public void setLeakDetectionThresholdMs(long leakDetectionThresholdMs) {
+            this.leakDetectionThresholdMs = leakDetectionThresholdMs;
+        }
+
+        public int getPrepareThreshold() {
+            return prepareThreshold;
+        }
+
+        public void setPrepareThreshold(int prepareThreshold) {
+            this.prepareThreshold = prepareThreshold;
+        }
+
+        public int getPreparedStatementCacheQueries() {
+            return preparedStatementCacheQueries;
+        }
+
+        public void setPreparedStatementCacheQueries(int preparedStatementCacheQueries) {
+            this.preparedStatementCacheQueries = preparedStatementCacheQueries;
+        }
+
+        public int getPreparedStatementCacheSizeMiB() {
+            return preparedStatementCacheSizeMiB;
+        }
+
+        public void setPreparedStatementCacheSizeMiB(int preparedStatementCacheSizeMiB) {
+            this.preparedStatementCacheSizeMiB = preparedStatementCacheSizeMiB;
+        }
+    }
 }
 
@@ -0,0 +1,143 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "pqs")
+public class PqsConfig {
+
+    private Executor executor = new Executor();
+    private ChangeWatcher changeWatcher = new ChangeWatcher();
+    private ContractCache contractCache = new ContractCache();
+    // Rows per round trip when streaming contracts through a server-side cursor (Pqs.forEachActiveProjected)
+    private int streamFetchSize = 500;
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public ChangeWatcher getChangeWatcher() {
+        return changeWatcher;
+    }
+
+    public void setChangeWatcher(ChangeWatcher changeWatcher) {
+        this.changeWatcher = changeWatcher;
+    }
+
+    public ContractCache getContractCache() {
+        return contractCache;
+    }
+
+    public void setContractCache(ContractCache contractCache) {
+        this.contractCache = contractCache;
+    }
+
+    public int getStreamFetchSize() {
+        return streamFetchSize;
+    }
+
+    public void setStreamFetchSize(int streamFetchSize) {
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    /**
+     * Executor that runs blocking PQS queries (bound from {@code pqs.executor.*}).
+     * Once all threads are busy and the queue is full, further queries are rejected with 503.
+     */
+    public static class Executor {
+        private int threads = 16;
+        private int queueCapacity = 256;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    /**
+     * Poller that detects changes to the active set of watched templates (bound from {@code pqs.change-watcher.*}).
+     * The poll interval itself is read by the scheduler from {@code pqs.change-watcher.poll-interval-ms}.
+     */
+    public static class ChangeWatcher {
+        private boolean enabled = true;
+        private long pollIntervalMs = 250;
+        // Single-value query returning PQS's latest indexed offset; active sets are only diffed when it moves
+        private String watermarkQuery = "select max(ix) from _watermark";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getPollIntervalMs() {
+            return pollIntervalMs;
+        }
+
+        public void setPollIntervalMs(long pollIntervalMs) {
+            this.pollIntervalMs = pollIntervalMs;
+        }
+
+        public String getWatermarkQuery() {
+            return watermarkQuery;
+        }
+
+        public void setWatermarkQuery(String watermarkQuery) {
+            this.watermarkQuery = watermarkQuery;
+        }
+    }
+
+    /** Cache of decoded contracts looked up by id or key (bound from {@code pqs.contract-cache.*}). */
+    public static class ContractCache {
+        private boolean enabled = true;
+        // Bound on the summed payload size (PQS JSON encoding) of cached contracts, plus a small per-entry overhead
+        private long maximumWeightBytes = 32L * 1024 * 1024;
+        // Upper bound on staleness when archives are not seen (change watcher disabled)
+        private long ttlMs = 60000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumWeightBytes() {
+            return maximumWeightBytes;
+        }
+
+        public void setMaximumWeightBytes(long maximumWeightBytes) {
+            this.maximumWeightBytes = maximumWeightBytes;
+        }
+
+        public long getTtlMs() {
+            return ttlMs;
+        }
+
+        public void setTtlMs(long ttlMs) {
+            this.ttlMs = ttlMs;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.ledger;
+
+import com.digitalasset.quickstart.config.LedgerConfig;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.netty.NettyChannelBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One or more plaintext connections to the Ledger API, configured from {@code ledger.channel.*}. Each new call
+ * goes to the next connection in turn; a streaming call stays on the connection it was started on.
+ */
+final class ChannelPool extends Channel {
+
+    private final List<ManagedChannel> channels = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final ExecutorService executor;
+
+    ChannelPool(String host, int port, LedgerConfig.Channel config, ClientInterceptor interceptor) {
+        if (config.getExecutorThreads() > 0) {
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(config.getExecutorThreads(), r -> {
+                Thread thread = new Thread(r, "ledger-grpc-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            executor = null;
+        }
+        for (int i = 0; i < Math.max(1, config.getPoolSize()); i++) {
+            NettyChannelBuilder builder = NettyChannelBuilder.forAddress(host, port)
+                    .usePlaintext()
+                    .maxInboundMessageSize(config.getMaxInboundMessageSize())
+                    .flowControlWindow(config.getFlowControlWindow())
+                    .intercept(interceptor);
+            if (config.getKeepAliveTimeMs() > 0) {
+                builder.keepAliveTime(config.getKeepAliveTimeMs(), TimeUnit.MILLISECONDS)
+                        .keepAliveTimeout(config.getKeepAliveTimeoutMs(), TimeUnit.MILLISECONDS)
+                        .keepAliveWithoutCalls(config.isKeepAliveWithoutCalls());
+            }
+            if (executor != null) {
+                // Response callbacks, and so every future completed from them, run here instead of on event loops.
+                builder.executor(executor).offloadExecutor(executor);
+            }
+            channels.add(builder.build());
+        }
+    }
+
+    int size() {
+        return channels.size();
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+        int index = Math.floorMod(next.getAndIncrement(), channels.size());
+        return channels.get(index).newCall(method, callOptions);
+    }
+
+    @Override
+    public String authority() {
+        return channels.get(0).authority();
+    }
+
+    void shutdown() {
+        channels.forEach(ManagedChannel::shutdown);
+        for (ManagedChannel channel : channels) {
+            try {
+                if (!channel.awaitTermination(5, TimeUnit.SECONDS)) {
+                    channel.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                channel.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.ledger;
+
+import com.daml.ledger.api.v2.TransactionFilterOuterClass;
+import com.daml.ledger.api.v2.ValueOuterClass;
+import com.digitalasset.transcode.Converter;
+import com.digitalasset.transcode.schema.Dictionary;
+import com.digitalasset.transcode.schema.Identifier;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Everything about a command that depends only on its template, choice or acting party, resolved once and
+ * reused: the protobuf template identifier, the transcode converters, and the ledger-effects
+ * {@code TransactionFormat} requested for a party. Building a command then only converts its payload.
+ */
+final class CommandDescriptors {
+
+    record TemplateDescriptor(ValueOuterClass.Identifier templateId, Converter<Object, ValueOuterClass.Value> payload) {
+    }
+
+    record ChoiceDescriptor(ValueOuterClass.Identifier templateId, String choiceName,
+                            Converter<Object, ValueOuterClass.Value> argument,
+                            Converter<ValueOuterClass.Value, Object> result) {
+    }
+
+    private record ChoiceKey(Identifier templateId, String choiceName) {
+    }
+
+    private record FormatKey(String party, Set<Identifier> templates) {
+    }
+
+    private final Dictionary<Converter<Object, ValueOuterClass.Value>> dto2Proto;
+    private final Dictionary<Converter<ValueOuterClass.Value, Object>> proto2Dto;
+    private final Map<Identifier, ValueOuterClass.Identifier> identifiers = new ConcurrentHashMap<>();
+    private final Map<Identifier, TemplateDescriptor> templates = new ConcurrentHashMap<>();
+    private final Map<ChoiceKey, ChoiceDescriptor> choices = new ConcurrentHashMap<>();
+    private final Map<FormatKey, TransactionFilterOuterClass.TransactionFormat> transactionFormats = new ConcurrentHashMap<>();
+
+    CommandDescriptors(Dictionary<Converter<Object, ValueOuterClass.Value>> dto2Proto,
+                       Dictionary<Converter<ValueOuterClass.Value, Object>> proto2Dto) {
+        this.dto2Proto = dto2Proto;
+        this.proto2Dto = proto2Dto;
+    }
+
+    TemplateDescriptor template(Identifier templateId) {
+        return templates.computeIfAbsent(templateId,
+                id -> new TemplateDescriptor(identifier(id), dto2Proto.template(id)));
+    }
+
+    ChoiceDescriptor choice(Identifier templateId, String choiceName) {
+        return choices.computeIfAbsent(new ChoiceKey(templateId, choiceName),
+                key -> new ChoiceDescriptor(identifier(key.templateId()), key.choiceName(),
+                        dto2Proto.choiceArgument(key.templateId(), key.choiceName()),
+                        proto2Dto.choiceResult(key.templateId(), key.choiceName())));
+    }
+
+    /** Ledger-effects transaction format with all events visible to the party. */
+    TransactionFilterOuterClass.TransactionFormat transactionFormat(String party) {
+        return transactionFormat(party, Set.of());
+    }
+
+    /**
+     * Ledger-effects transaction format for the party's events of the given templates only, or all of the
+     * party's events when {@code templates} is empty.
+     */
+    TransactionFilterOuterClass.TransactionFormat transactionFormat(String party, Set<Identifier> templates) {
+        return transactionFormats.computeIfAbsent(new FormatKey(party, templates), key -> {
+            var filters = TransactionFilterOuterClass.Filters.newBuilder();
+            for (Identifier templateId : key.templates()) {
+                filters.addCumulative(TransactionFilterOuterClass.CumulativeFilter.newBuilder()
+                        .setTemplateFilter(TransactionFilterOuterClass.TemplateFilter.newBuilder()
+                                .setTemplateId(identifier(templateId))));
+            }
+            var eventFormat = TransactionFilterOuterClass.EventFormat.newBuilder()
+                    .putFiltersByParty(key.party(), filters.build())
+                    .build();
+            return TransactionFilterOuterClass.TransactionFormat.newBuilder()
+                    .setEventFormat(eventFormat)
+                    .setTransactionShape(TransactionFilterOuterClass.TransactionShape.TRANSACTION_SHAPE_LEDGER_EFFECTS)
+                    .build();
+        });
+    }
+
+    /** The format to request for commands on {@code templates} under the given projection. */
+    TransactionFilterOuterClass.TransactionFormat transactionFormat(String party, ResultProjection projection,
+                                                                    Set<Identifier> templates) {
+        return projection == ResultProjection.COMMAND_TEMPLATES
+                ? transactionFormat(party, templates)
+                : transactionFormat(party);
+    }
+
+    ValueOuterClass.Identifier identifier(Identifier id) {
+        return identifiers.computeIfAbsent(id, i -> ValueOuterClass.Identifier.newBuilder()
+                .setPackageId(i.packageNameAsPackageId())
+                .setModuleName(i.moduleName())
+                .setEntityName(i.entityName())
+                .build());
+    }
+}
@@ -0,0 +1,140 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.ledger;
+
+import com.daml.ledger.api.v2.CommandCompletionServiceGrpc;
+import com.daml.ledger.api.v2.CommandCompletionServiceOuterClass;
+import com.daml.ledger.api.v2.CompletionOuterClass;
+import com.daml.ledger.api.v2.StateServiceGrpc;
+import com.daml.ledger.api.v2.StateServiceOuterClass;
+import io.grpc.Channel;
+import io.grpc.protobuf.StatusProto;
+import io.grpc.stub.StreamObserver;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Correlates asynchronously submitted commands with their outcome on the command completion stream.
+ *
+ * <p>One completion stream is kept open per acting party, started from the ledger end the first time that party
+ * submits and resumed from the last seen offset if it breaks. A tracked command's future completes with its
+ * {@link CompletionOuterClass.Completion} when the completion status is OK, fails with the rejection status
+ * otherwise, and fails with a {@link TimeoutException} if no completion arrives in time.
+ */
+final class CommandTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommandTracker.class);
+    private static final long RECONNECT_DELAY_MS = 1000;
+
+    private final CommandCompletionServiceGrpc.CommandCompletionServiceStub completions;
+    private final StateServiceGrpc.StateServiceFutureStub state;
+    private final String userId;
+    private final Duration timeout;
+    private final Map<String, CompletableFuture<CompletionOuterClass.Completion>> pending = new ConcurrentHashMap<>();
+    private final Map<String, PartyStream> streams = new ConcurrentHashMap<>();
+
+    CommandTracker(Channel channel, String userId, Duration timeout) {
+        this.completions = CommandCompletionServiceGrpc.newStub(channel);
+        this.state = StateServiceGrpc.newFutureStub(channel);
+        this.userId = userId;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Register a command before it is submitted. The returned {@code ready} future completes once the party's
+     * completion stream is subscribed, so a completion for a command submitted after that cannot be missed.
+     */
+    Tracked track(String commandId, String actAsParty) {
+        CompletableFuture<CompletionOuterClass.Completion> outcome = new CompletableFuture<>();
+        if (pending.putIfAbsent(commandId, outcome) != null) {
+            throw new IllegalArgumentException("Command " + commandId + " is already being tracked");
+        }
+        outcome.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((c, e) -> pending.remove(commandId, outcome));
+        CompletableFuture<Void> ready = streams.computeIfAbsent(actAsParty, PartyStream::new).started;
+        return new Tracked(ready, outcome);
+    }
+
+    /** Fail a tracked command whose submission itself was rejected. */
+    void fail(String commandId, Throwable cause) {
+        var outcome = pending.remove(commandId);
+        if (outcome != null) {
+            outcome.completeExceptionally(cause);
+        }
+    }
+
+    record Tracked(CompletableFuture<Void> ready, CompletableFuture<CompletionOuterClass.Completion> outcome) {
+    }
+
+    private void onCompletion(CompletionOuterClass.Completion completion) {
+        var outcome = pending.remove(completion.getCommandId());
+        if (outcome == null) {
+            return;
+        }
+        if (completion.getStatus().getCode() == 0) {
+            outcome.complete(completion);
+        } else {
+            outcome.completeExceptionally(StatusProto.toStatusRuntimeException(completion.getStatus()));
+        }
+    }
+
+    private final class PartyStream implements StreamObserver<CommandCompletionServiceOuterClass.CompletionStreamResponse> {
+        private final String party;
+        private final CompletableFuture<Void> started = new CompletableFuture<>();
+        private volatile long offset;
+
+        PartyStream(String party) {
+            this.party = party;
+            LedgerApi.toCompletableFuture(state.getLedgerEnd(StateServiceOuterClass.GetLedgerEndRequest.getDefaultInstance()))
+                    .whenComplete((end, e) -> {
+                        if (e != null) {
+                            streams.remove(party, this);
+                            started.completeExceptionally(e);
+                            return;
+                        }
+                        offset = end.getOffset();
+                        subscribe();
+                        started.complete(null);
+                    });
+        }
+
+        private void subscribe() {
+            var request = CommandCompletionServiceOuterClass.CompletionStreamRequest.newBuilder()
+                    .addParties(party)
+                    .setBeginExclusive(offset);
+            if (userId != null && !userId.isBlank()) {
+                request.setUserId(userId);
+            }
+            completions.completionStream(request.build(), this);
+        }
+
+        @Override
+        public void onNext(CommandCompletionServiceOuterClass.CompletionStreamResponse response) {
+            if (response.hasCompletion()) {
+                var completion = response.getCompletion();
+                offset = Math.max(offset, completion.getOffset());
+                onCompletion(completion);
+            } else if (response.hasOffsetCheckpoint()) {
+                offset = Math.max(offset, response.getOffsetCheckpoint().getOffset());
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            logger.warn("Completion stream for party {} failed at offset {}, resubscribing: {}", party, offset, t.getMessage());
+            CompletableFuture.delayedExecutor(RECONNECT_DELAY_MS, TimeUnit.MILLISECONDS).execute(this::subscribe);
+        }
+
+        @Override
+        public void onCompleted() {
+            CompletableFuture.delayedExecutor(RECONNECT_DELAY_MS, TimeUnit.MILLISECONDS).execute(this::subscribe);
+        }
+    }
+}
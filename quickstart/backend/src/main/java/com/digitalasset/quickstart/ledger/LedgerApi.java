@@ -6,23 +6,23 @@ package com.digitalasset.quickstart.ledger;
 import com.daml.ledger.api.v2.*;
 import com.digitalasset.quickstart.config.LedgerConfig;
 import com.digitalasset.quickstart.security.AuthUtils;
+import com.digitalasset.quickstart.security.CachingTokenProvider;
 import com.digitalasset.quickstart.security.TokenProvider;
-import com.digitalasset.transcode.Converter;
 import com.digitalasset.transcode.codec.proto.ProtobufCodec;
 import com.digitalasset.transcode.java.Choice;
 import com.digitalasset.transcode.java.ContractId;
 import com.digitalasset.transcode.java.Template;
 import com.digitalasset.transcode.java.Utils;
-import com.digitalasset.transcode.schema.Dictionary;
-import com.digitalasset.transcode.schema.Identifier;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import daml.Daml;
 import io.grpc.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,7 +30,9 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.Nonnull;
 import java.util.*;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 import static com.digitalasset.quickstart.utility.TracingUtils.*;
 
@@ -39,37 +41,50 @@ public class LedgerApi {
     private final String APP_ID;
     private final CommandSubmissionServiceGrpc.CommandSubmissionServiceFutureStub submission;
     private final CommandServiceGrpc.CommandServiceFutureStub commands;
-    private final Dictionary<Converter<Object, ValueOuterClass.Value>> dto2Proto;
-    private final Dictionary<Converter<ValueOuterClass.Value, Object>> proto2Dto;
+    private final CommandDescriptors descriptors;
+    private final CommandTracker tracker;
+    private final CachingTokenProvider tokens;
+    private final ChannelPool channel;
 
     private final Logger logger = LoggerFactory.getLogger(LedgerApi.class);
     private final String appProviderParty;
 
     @Autowired
-    public LedgerApi(LedgerConfig ledgerConfig, Optional<TokenProvider> tokenProvider, AuthUtils authUtils) {
+    public LedgerApi(LedgerConfig ledgerConfig, Optional<TokenProvider> tokenProvider, AuthUtils authUtils,
+                     MeterRegistry meterRegistry) {
         APP_ID = ledgerConfig.getApplicationId();
         appProviderParty = authUtils.getAppProviderPartyId();
-        ManagedChannelBuilder<?> builder = ManagedChannelBuilder
-                .forAddress(ledgerConfig.getHost(), ledgerConfig.getPort())
-                .usePlaintext();
         if (tokenProvider.isEmpty()) {
             throw new IllegalStateException("TokenProvider is required for authentication");
         }
-        builder.intercept(new Interceptor(tokenProvider.get()));
-        ManagedChannel channel = builder.build();
+        tokens = new CachingTokenProvider(tokenProvider.get(),
+                Duration.ofMillis(ledgerConfig.getTokenRefreshMarginMs()),
+                Duration.ofMillis(ledgerConfig.getTokenFallbackLifetimeMs()),
+                meterRegistry);
+        channel = new ChannelPool(ledgerConfig.getHost(), ledgerConfig.getPort(), ledgerConfig.getChannel(),
+                new Interceptor(tokens));
 
         // Single log statement, not duplicating attributes for spans, so leaving as-is:
         logger.atInfo()
                 .addKeyValue("host", ledgerConfig.getHost())
                 .addKeyValue("port", ledgerConfig.getPort())
+                .addKeyValue("channels", channel.size())
                 .log("Connected to ledger");
 
         submission = CommandSubmissionServiceGrpc.newFutureStub(channel);
         commands = CommandServiceGrpc.newFutureStub(channel);
+        tracker = new CommandTracker(channel, APP_ID, Duration.ofMillis(ledgerConfig.getCompletionTimeoutMs()));
 
         ProtobufCodec protoCodec = new ProtobufCodec();
-        dto2Proto = Utils.getConverters(Daml.ENTITIES, protoCodec);
-        proto2Dto = Utils.getConverters(protoCodec, Daml.ENTITIES);
+        descriptors = new CommandDescriptors(
+                Utils.getConverters(Daml.ENTITIES, protoCodec),
+                Utils.getConverters(protoCodec, Daml.ENTITIES));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channel.shutdown();
+        tokens.shutdown();
     }
 
     @WithSpan
@@ -83,7 +98,8 @@ public class LedgerApi {
     /**
      * Create a contract acting as the given party (for party-scoped templates e.g. loans).
      * Uses the synchronous command service so the future completes only after the
-     * transaction is committed on the ledger (not just accepted).
+     * transaction is committed on the ledger (not just accepted). Only the completion offset
+     * comes back; no transaction events are requested.
      */
     @WithSpan
     public <T extends Template> CompletableFuture<Void> create(
@@ -98,10 +114,11 @@ public class LedgerApi {
                 "applicationId", APP_ID
         );
         return traceWithStartEvent(ctx, () -> {
+            var template = descriptors.template(entity.templateId());
             CommandsOuterClass.Command.Builder command = CommandsOuterClass.Command.newBuilder();
-            ValueOuterClass.Value payload = dto2Proto.template(entity.templateId()).convert(entity);
+            ValueOuterClass.Value payload = template.payload().convert(entity);
             command.getCreateBuilder()
-                    .setTemplateId(toIdentifier(entity.templateId()))
+                    .setTemplateId(template.templateId())
                     .setCreateArguments(payload.getRecord());
 
             CommandsOuterClass.Commands.Builder commandsBuilder = CommandsOuterClass.Commands.newBuilder()
@@ -110,25 +127,16 @@ public class LedgerApi {
                     .addReadAs(actAsParty)
                     .addCommands(command.build());
 
-            var eventFormat = TransactionFilterOuterClass.EventFormat.newBuilder()
-                    .putFiltersByParty(actAsParty, TransactionFilterOuterClass.Filters.newBuilder().build())
-                    .build();
-            var transactionFormat = TransactionFilterOuterClass.TransactionFormat.newBuilder()
-                    .setEventFormat(eventFormat)
-                    .setTransactionShape(TransactionFilterOuterClass.TransactionShape.TRANSACTION_SHAPE_LEDGER_EFFECTS)
-                    .build();
-
-            CommandServiceOuterClass.SubmitAndWaitForTransactionRequest request =
-                    CommandServiceOuterClass.SubmitAndWaitForTransactionRequest.newBuilder()
+            CommandServiceOuterClass.SubmitAndWaitRequest request =
+                    CommandServiceOuterClass.SubmitAndWaitRequest.newBuilder()
                             .setCommands(commandsBuilder.build())
-                            .setTransactionFormat(transactionFormat)
                             .build();
 
             addEventWithAttributes(Span.current(), "built ledger create request", Map.of());
             logger.info("Submitting ledger create command (waiting for commit)");
-            return toCompletableFuture(commands.submitAndWaitForTransaction(request))
+            return toCompletableFuture(commands.submitAndWait(request))
                     .thenApply(response -> {
-                        long offset = response.getTransaction().getOffset();
+                        long offset = response.getCompletionOffset();
                         Map<String, Object> attrs = new HashMap<>();
                         attrs.put("ledgerOffset", offset);
                         setSpanAttributes(Span.current(), attrs);
@@ -204,6 +212,34 @@ public class LedgerApi {
             List<CommandsOuterClass.DisclosedContract> disclosedContracts,
             String primaryParty,
             List<String> actAsParties
+    ) {
+        return exerciseAndGetResult(contractId, choice, commandId, disclosedContracts, primaryParty, actAsParties,
+                ResultProjection.TRANSACTION);
+    }
+
+    /** Exercise a choice acting as the given party, asking only for the events selected by {@code projection}. */
+    @WithSpan
+    public <T extends Template, Result, C extends Choice<T, Result>>
+    CompletableFuture<Result> exerciseAndGetResult(
+            ContractId<T> contractId,
+            C choice,
+            String commandId,
+            String actAsParty,
+            ResultProjection projection
+    ) {
+        return exerciseAndGetResult(contractId, choice, commandId, List.of(), actAsParty, List.of(actAsParty), projection);
+    }
+
+    @WithSpan
+    public <T extends Template, Result, C extends Choice<T, Result>>
+    CompletableFuture<Result> exerciseAndGetResult(
+            ContractId<T> contractId,
+            C choice,
+            String commandId,
+            List<CommandsOuterClass.DisclosedContract> disclosedContracts,
+            String primaryParty,
+            List<String> actAsParties,
+            ResultProjection projection
     ) {
         var ctx = tracingCtx(logger, "Exercising choice",
                 "commandId", commandId,
@@ -213,14 +249,14 @@ public class LedgerApi {
                 "applicationId", APP_ID
         );
         return trace(ctx, () -> {
+            var descriptor = descriptors.choice(choice.templateId(), choice.choiceName());
             CommandsOuterClass.Command.Builder cmdBuilder = CommandsOuterClass.Command.newBuilder();
-            ValueOuterClass.Value payload =
-                    dto2Proto.choiceArgument(choice.templateId(), choice.choiceName()).convert(choice);
+            ValueOuterClass.Value payload = descriptor.argument().convert(choice);
 
             cmdBuilder.getExerciseBuilder()
-                    .setTemplateId(toIdentifier(choice.templateId()))
+                    .setTemplateId(descriptor.templateId())
                     .setContractId(contractId.getContractId)
-                    .setChoice(choice.choiceName())
+                    .setChoice(descriptor.choiceName())
                     .setChoiceArgument(payload);
 
             CommandsOuterClass.Commands.Builder commandsBuilder = CommandsOuterClass.Commands.newBuilder()
@@ -233,19 +269,10 @@ public class LedgerApi {
                 commandsBuilder.addAllDisclosedContracts(disclosedContracts);
             }
 
-            var eventFormat = TransactionFilterOuterClass.EventFormat.newBuilder()
-                    .putFiltersByParty(primaryParty, TransactionFilterOuterClass.Filters.newBuilder().build())
-                    .build();
-            var transactionShape = TransactionFilterOuterClass.TransactionShape.TRANSACTION_SHAPE_LEDGER_EFFECTS;
-            var transactionFormat =
-                    TransactionFilterOuterClass.TransactionFormat.newBuilder()
-                            .setEventFormat(eventFormat)
-                            .setTransactionShape(transactionShape)
-                            .build();
             CommandServiceOuterClass.SubmitAndWaitForTransactionRequest request =
                     CommandServiceOuterClass.SubmitAndWaitForTransactionRequest.newBuilder()
                             .setCommands(commandsBuilder.build())
-                            .setTransactionFormat(transactionFormat)
+                            .setTransactionFormat(descriptors.transactionFormat(primaryParty, projection, Set.of(choice.templateId())))
                             .build();
 
             addEventWithAttributes(Span.current(), "built ledger submit request", Map.of());
@@ -268,12 +295,150 @@ public class LedgerApi {
                         ValueOuterClass.Value resultPayload = event != null ? event.getExercised().getExerciseResult() : ValueOuterClass.Value.getDefaultInstance();
 
                         @SuppressWarnings("unchecked")
-                        Result result = (Result) proto2Dto.choiceResult(choice.templateId(), choice.choiceName()).convert(resultPayload);
+                        Result result = (Result) descriptor.result().convert(resultPayload);
                         return result;
                     });
         });
     }
 
+    /**
+     * Exercise a choice acting as the given party when its result is not needed. Completes once the
+     * transaction is committed; only the completion offset is transferred back.
+     */
+    @WithSpan
+    public <T extends Template, Result, C extends Choice<T, Result>>
+    CompletableFuture<Void> exercise(
+            ContractId<T> contractId,
+            C choice,
+            String commandId,
+            String actAsParty
+    ) {
+        var ctx = tracingCtx(logger, "Exercising choice",
+                "commandId", commandId,
+                "contractId", contractId.getContractId,
+                "choiceName", choice.choiceName(),
+                "templateId", choice.templateId().toString(),
+                "applicationId", APP_ID
+        );
+        return trace(ctx, () -> {
+            CommandServiceOuterClass.SubmitAndWaitRequest request =
+                    CommandServiceOuterClass.SubmitAndWaitRequest.newBuilder()
+                            .setCommands(CommandsOuterClass.Commands.newBuilder()
+                                    .setCommandId(commandId)
+                                    .addActAs(actAsParty)
+                                    .addReadAs(actAsParty)
+                                    .addCommands(toCommand(LedgerCommand.exercise(contractId, choice))))
+                            .build();
+
+            addEventWithAttributes(Span.current(), "built ledger submit request", Map.of());
+            logger.info("Submitting ledger command (offset only)");
+            return toCompletableFuture(commands.submitAndWait(request))
+                    .thenApply(response -> {
+                        Map<String, Object> completionAttrs = new HashMap<>();
+                        completionAttrs.put("ledgerOffset", response.getCompletionOffset());
+                        completionAttrs.put("updateId", response.getUpdateId());
+                        setSpanAttributes(Span.current(), completionAttrs);
+                        logInfo(logger, "Exercised choice", completionAttrs);
+                        return (Void) null;
+                    });
+        });
+    }
+
+    /**
+     * Submit several creates/exercises as one atomic transaction acting as the given party and return their
+     * results in command order. Either every command takes effect or none does.
+     */
+    @WithSpan
+    public <R> CompletableFuture<List<R>> submitBatch(
+            List<? extends LedgerCommand<? extends R>> batch,
+            String commandId,
+            String actAsParty
+    ) {
+        return submitBatch(batch, commandId, List.of(), actAsParty);
+    }
+
+    @WithSpan
+    public <R> CompletableFuture<List<R>> submitBatch(
+            List<? extends LedgerCommand<? extends R>> batch,
+            String commandId,
+            List<CommandsOuterClass.DisclosedContract> disclosedContracts,
+            String actAsParty
+    ) {
+        return submitBatch(batch, commandId, disclosedContracts, actAsParty, ResultProjection.TRANSACTION);
+    }
+
+    @WithSpan
+    public <R> CompletableFuture<List<R>> submitBatch(
+            List<? extends LedgerCommand<? extends R>> batch,
+            String commandId,
+            String actAsParty,
+            ResultProjection projection
+    ) {
+        return submitBatch(batch, commandId, List.of(), actAsParty, projection);
+    }
+
+    @WithSpan
+    public <R> CompletableFuture<List<R>> submitBatch(
+            List<? extends LedgerCommand<? extends R>> batch,
+            String commandId,
+            List<CommandsOuterClass.DisclosedContract> disclosedContracts,
+            String actAsParty,
+            ResultProjection projection
+    ) {
+        var ctx = tracingCtx(logger, "Submitting command batch",
+                "commands.count", batch.size(),
+                "commandId", commandId,
+                "actAsParty", actAsParty,
+                "applicationId", APP_ID
+        );
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        return trace(ctx, () -> {
+            CommandsOuterClass.Commands.Builder commandsBuilder = CommandsOuterClass.Commands.newBuilder()
+                    .setCommandId(commandId)
+                    .addActAs(actAsParty)
+                    .addReadAs(actAsParty);
+            for (LedgerCommand<?> cmd : batch) {
+                commandsBuilder.addCommands(toCommand(cmd));
+            }
+            if (disclosedContracts != null && !disclosedContracts.isEmpty()) {
+                commandsBuilder.addAllDisclosedContracts(disclosedContracts);
+            }
+
+            CommandServiceOuterClass.SubmitAndWaitForTransactionRequest request =
+                    CommandServiceOuterClass.SubmitAndWaitForTransactionRequest.newBuilder()
+                            .setCommands(commandsBuilder.build())
+                            .setTransactionFormat(descriptors.transactionFormat(actAsParty, projection,
+                                    batch.stream().map(LedgerCommand::templateId).collect(Collectors.toUnmodifiableSet())))
+                            .build();
+
+            addEventWithAttributes(Span.current(), "built ledger batch request", Map.of("commands.count", batch.size()));
+            logger.info("Submitting ledger command batch");
+            return toCompletableFuture(commands.submitAndWaitForTransaction(request))
+                    .thenApply(response -> {
+                        TransactionOuterClass.Transaction tx = response.getTransaction();
+                        List<EventOuterClass.Event> roots = rootEvents(tx);
+                        if (roots.size() != batch.size()) {
+                            throw new IllegalStateException("Expected " + batch.size()
+                                    + " root events in transaction " + tx.getUpdateId() + " but found " + roots.size());
+                        }
+
+                        Map<String, Object> completionAttrs = new HashMap<>();
+                        completionAttrs.put("ledgerOffset", tx.getOffset());
+                        completionAttrs.put("workflowId", tx.getWorkflowId());
+                        setSpanAttributes(Span.current(), completionAttrs);
+                        logInfo(logger, "Submitted command batch", completionAttrs);
+
+                        List<R> results = new ArrayList<>(batch.size());
+                        for (int i = 0; i < batch.size(); i++) {
+                            results.add(decodeResult(batch.get(i), roots.get(i)));
+                        }
+                        return results;
+                    });
+        });
+    }
+
     @WithSpan
     public CompletableFuture<CommandSubmissionServiceOuterClass.SubmitResponse> submitCommands(
             List<CommandsOuterClass.Command> cmds,
@@ -334,7 +499,111 @@ public class LedgerApi {
     }
 
 
-    private static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> listenableFuture) {
+    private CommandsOuterClass.Command toCommand(LedgerCommand<?> cmd) {
+        CommandsOuterClass.Command.Builder builder = CommandsOuterClass.Command.newBuilder();
+        if (cmd.isCreate()) {
+            var template = descriptors.template(cmd.templateId());
+            ValueOuterClass.Value payload = template.payload().convert(cmd.entity());
+            builder.getCreateBuilder()
+                    .setTemplateId(template.templateId())
+                    .setCreateArguments(payload.getRecord());
+        } else {
+            var descriptor = descriptors.choice(cmd.templateId(), cmd.choice().choiceName());
+            ValueOuterClass.Value argument = descriptor.argument().convert(cmd.choice());
+            builder.getExerciseBuilder()
+                    .setTemplateId(descriptor.templateId())
+                    .setContractId(cmd.contractId())
+                    .setChoice(descriptor.choiceName())
+                    .setChoiceArgument(argument);
+        }
+        return builder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> R decodeResult(LedgerCommand<? extends R> cmd, EventOuterClass.Event root) {
+        if (cmd.isCreate()) {
+            if (!root.hasCreated()) {
+                throw new IllegalStateException("Expected a created event for create of " + cmd.templateId());
+            }
+            return (R) new ContractId<>(root.getCreated().getContractId());
+        }
+        if (!root.hasExercised()) {
+            throw new IllegalStateException("Expected an exercised event for " + cmd.choice().choiceName());
+        }
+        return (R) descriptors.choice(cmd.templateId(), cmd.choice().choiceName()).result()
+                .convert(root.getExercised().getExerciseResult());
+    }
+
+    /**
+     * Root events of a ledger-effects transaction, in command order. Events are listed in node order and an
+     * exercise's consequences are the nodes up to its last descendant, so every event past the previous root's
+     * subtree starts the next command.
+     */
+    private static List<EventOuterClass.Event> rootEvents(TransactionOuterClass.Transaction tx) {
+        List<EventOuterClass.Event> roots = new ArrayList<>();
+        int subtreeEnd = -1;
+        for (EventOuterClass.Event event : tx.getEventsList()) {
+            int nodeId;
+            int lastDescendant;
+            if (event.hasExercised()) {
+                nodeId = event.getExercised().getNodeId();
+                lastDescendant = event.getExercised().getLastDescendantNodeId();
+            } else if (event.hasCreated()) {
+                nodeId = event.getCreated().getNodeId();
+                lastDescendant = nodeId;
+            } else {
+                continue;
+            }
+            if (nodeId > subtreeEnd) {
+                roots.add(event);
+                subtreeEnd = lastDescendant;
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * Submit commands as one transaction without waiting for the commit on the request path. The future
+     * completes when the command's completion arrives on the completion stream: normally on success, or
+     * exceptionally with the rejection status (or a timeout after {@code ledger.completion-timeout-ms}).
+     * Use {@link #submitBatch} instead when choice results are needed.
+     */
+    @WithSpan
+    public CompletableFuture<CompletionOuterClass.Completion> submitAndTrack(
+            List<? extends LedgerCommand<?>> batch,
+            String commandId,
+            String actAsParty
+    ) {
+        var ctx = tracingCtx(logger, "Submitting tracked commands",
+                "commands.count", batch.size(),
+                "commandId", commandId,
+                "actAsParty", actAsParty,
+                "applicationId", APP_ID
+        );
+        return trace(ctx, () -> {
+            List<CommandsOuterClass.Command> cmds = new ArrayList<>(batch.size());
+            for (LedgerCommand<?> cmd : batch) {
+                cmds.add(toCommand(cmd));
+            }
+            CommandTracker.Tracked tracked = tracker.track(commandId, actAsParty);
+            tracked.ready()
+                    .thenCompose(v -> submitCommands(cmds, commandId, List.of(), actAsParty))
+                    .whenComplete((response, e) -> {
+                        if (e != null) {
+                            tracker.fail(commandId, e);
+                        }
+                    });
+            return tracked.outcome().thenApply(completion -> {
+                Map<String, Object> attrs = new HashMap<>();
+                attrs.put("ledgerOffset", completion.getOffset());
+                attrs.put("updateId", completion.getUpdateId());
+                setSpanAttributes(Span.current(), attrs);
+                return completion;
+            });
+        });
+    }
+
+    static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> listenableFuture) {
         CompletableFuture<T> completableFuture = new CompletableFuture<>();
         Futures.addCallback(listenableFuture, new FutureCallback<>() {
             @Override
@@ -350,14 +619,6 @@ public class LedgerApi {
         return completableFuture;
     }
 
-    private static ValueOuterClass.Identifier toIdentifier(Identifier id) {
-        return ValueOuterClass.Identifier.newBuilder()
-                .setPackageId(id.packageNameAsPackageId())
-                .setModuleName(id.moduleName())
-                .setEntityName(id.entityName())
-                .build();
-    }
-
 
     private static class Interceptor implements ClientInterceptor {
         private final Metadata.Key<String> AUTHORIZATION_HEADER = Metadata.Key.of("Authorization", Metadata.ASCII_STRING_MARSHALLER);
@@ -0,0 +1,59 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.ledger;
+
+import com.digitalasset.transcode.java.Choice;
+import com.digitalasset.transcode.java.ContractId;
+import com.digitalasset.transcode.java.Template;
+import com.digitalasset.transcode.schema.Identifier;
+
+/**
+ * One command of a {@link LedgerApi#submitBatch} transaction, typed by the value it yields: the choice result
+ * for an exercise, the new contract id for a create.
+ */
+public final class LedgerCommand<R> {
+
+    private final Identifier templateId;
+    private final String contractId;
+    private final Choice<?, R> choice;
+    private final Template entity;
+
+    private LedgerCommand(Identifier templateId, String contractId, Choice<?, R> choice, Template entity) {
+        this.templateId = templateId;
+        this.contractId = contractId;
+        this.choice = choice;
+        this.entity = entity;
+    }
+
+    public static <T extends Template, R> LedgerCommand<R> exercise(ContractId<T> contractId, Choice<T, R> choice) {
+        return new LedgerCommand<>(choice.templateId(), contractId.getContractId, choice, null);
+    }
+
+    public static <T extends Template> LedgerCommand<ContractId<T>> create(T entity) {
+        return new LedgerCommand<>(entity.templateId(), null, null, entity);
+    }
+
+    Identifier templateId() {
+        return templateId;
+    }
+
+    /** Contract exercised on, or null for a create. */
+    String contractId() {
+        return contractId;
+    }
+
+    /** Choice exercised, or null for a create. */
+    Choice<?, R> choice() {
+        return choice;
+    }
+
+    /** Template instance created, or null for an exercise. */
+    Template entity() {
+        return entity;
+    }
+
+    boolean isCreate() {
+        return entity != null;
+    }
+}
@@ -0,0 +1,19 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.ledger;
+
+/**
+ * Which events a synchronous submission asks the participant to send back. Writes that need nothing but
+ * the commit should use {@link LedgerApi#exercise} or {@link LedgerApi#create}, which request no events at all.
+ */
+public enum ResultProjection {
+    /** Every event of the transaction visible to the acting party, including all nested consequences. */
+    TRANSACTION,
+    /**
+     * Only events on the templates the commands themselves target. Root results are still complete, but
+     * consequences on other templates (e.g. contracts created by the choice) are not transferred. Only valid
+     * for template choices; an interface choice's root event would be filtered out.
+     */
+    COMMAND_TEMPLATES
+}
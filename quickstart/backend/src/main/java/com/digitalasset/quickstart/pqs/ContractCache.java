@@ -0,0 +1,163 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.pqs;
+
+import com.digitalasset.quickstart.config.PqsConfig;
+import com.digitalasset.transcode.Converter;
+import com.digitalasset.transcode.codec.json.JsonStringCodec;
+import com.digitalasset.transcode.java.Template;
+import com.digitalasset.transcode.java.Utils;
+import com.digitalasset.transcode.schema.Dictionary;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import daml.Daml;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read-through cache of decoded active contracts in front of {@link Pqs}, bounded by {@code pqs.contract-cache.*}.
+ *
+ * <p>Entries are keyed by template and either the contract id or a caller-chosen lookup key (e.g. the
+ * platform's MatchingEngine by party), and weighed by the size of their payload in PQS JSON encoding, so the
+ * bound is on memory rather than on the number of contracts. Every template that goes through the cache is
+ * watched by {@link PqsChangeWatcher} for contract ids only, and an entry is dropped as soon as its contract
+ * shows up as archived; a contract id to keys index makes that proportional to the archived ids. The TTL only
+ * bounds staleness when the change watcher is disabled. Absent contracts are never cached.
+ */
+@Component
+public class ContractCache {
+
+    private record Key(Class<?> template, String key) {
+    }
+
+    // Rough per-entry overhead (key, Contract, ContractId, cache node) on top of the payload itself
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final Pqs pqs;
+    private final PqsChangeWatcher changeWatcher;
+    private final boolean enabled;
+    private final Cache<Key, Contract<?>> cache;
+    // Cache keys per contract id, so archives evict without scanning the cache
+    private final Map<String, Set<Key>> keysByContractId = new ConcurrentHashMap<>();
+    private final Dictionary<Converter<Object, String>> dto2Json;
+    // Bumped on every eviction of a template, so a load that raced with an archive is not cached
+    private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public ContractCache(Pqs pqs, PqsChangeWatcher changeWatcher, PqsConfig pqsConfig, MeterRegistry meterRegistry) {
+        this.pqs = pqs;
+        this.changeWatcher = changeWatcher;
+        PqsConfig.ContractCache config = pqsConfig.getContractCache();
+        this.enabled = config.isEnabled();
+        this.dto2Json = Utils.getConverters(Daml.ENTITIES, new JsonStringCodec(true, true, false));
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(config.getMaximumWeightBytes())
+                .weigher((Key key, Contract<?> contract) -> weigh(contract))
+                .expireAfterWrite(Duration.ofMillis(config.getTtlMs()))
+                .removalListener(this::unindex)
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "pqs.contracts");
+        Gauge.builder("pqs.contracts.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of contract cache lookups served without a PQS query")
+                .register(meterRegistry);
+    }
+
+    /** {@link Pqs#contractByContractId}, served from the cache when the contract was read before. */
+    public <T extends Template> CompletableFuture<Optional<Contract<T>>> contractByContractId(Class<T> clazz, String contractId) {
+        return lookup(clazz, contractId, () -> pqs.contractByContractId(clazz, contractId));
+    }
+
+    /**
+     * Cached result of an arbitrary single-contract lookup. {@code key} must identify the lookup within the
+     * template; the loader only runs on a miss.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Template> CompletableFuture<Optional<Contract<T>>> lookup(
+            Class<T> clazz, String key, Supplier<CompletableFuture<Optional<Contract<T>>>> loader) {
+        if (!enabled || key == null) {
+            return loader.get();
+        }
+        AtomicLong generation = watch(clazz);
+        Key cacheKey = new Key(clazz, key);
+        Contract<T> cached = (Contract<T>) cache.getIfPresent(cacheKey);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(Optional.of(cached));
+        }
+        long loadedAt = generation.get();
+        return loader.get().thenApply(result -> {
+            if (result.isPresent() && generation.get() == loadedAt) {
+                keysByContractId.computeIfAbsent(result.get().contractId.getContractId, id -> ConcurrentHashMap.newKeySet())
+                        .add(cacheKey);
+                cache.put(cacheKey, result.get());
+            }
+            return result;
+        });
+    }
+
+    /** Drop a contract known to be gone, e.g. after a consuming choice on it succeeded. */
+    public void invalidate(Class<? extends Template> clazz, String contractId) {
+        evict(clazz, Set.of(contractId));
+    }
+
+    private <T extends Template> AtomicLong watch(Class<T> clazz) {
+        AtomicLong existing = generations.get(clazz);
+        if (existing != null) {
+            return existing;
+        }
+        AtomicLong generation = new AtomicLong();
+        if (generations.putIfAbsent(clazz, generation) != null) {
+            return generations.get(clazz);
+        }
+        changeWatcher.subscribeIds(clazz, delta -> {
+            if (delta.initial()) {
+                // The watcher (re)loaded the active set; anything cached before may have been archived meanwhile.
+                generation.incrementAndGet();
+                cache.asMap().keySet().removeIf(k -> k.template() == clazz);
+            } else if (!delta.archived().isEmpty()) {
+                evict(clazz, delta.archived());
+            }
+        });
+        return generation;
+    }
+
+    private void evict(Class<?> clazz, Set<String> contractIds) {
+        AtomicLong generation = generations.get(clazz);
+        if (generation != null) {
+            generation.incrementAndGet();
+        }
+        for (String contractId : contractIds) {
+            Set<Key> keys = keysByContractId.remove(contractId);
+            if (keys != null) {
+                cache.invalidateAll(keys);
+            }
+        }
+    }
+
+    private void unindex(Key key, Contract<?> contract, RemovalCause cause) {
+        if (contract == null || cause == RemovalCause.REPLACED) {
+            return;
+        }
+        keysByContractId.computeIfPresent(contract.contractId.getContractId, (id, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private int weigh(Contract<?> contract) {
+        Template payload = contract.payload;
+        return ENTRY_OVERHEAD_BYTES + dto2Json.template(payload.templateId()).convert(payload).length();
+    }
+}
@@ -0,0 +1,98 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.pqs;
+
+import com.digitalasset.quickstart.config.PqsConfig;
+import com.digitalasset.transcode.java.Template;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves a contract from a (case-insensitive, hex) suffix of its contract id, e.g. when a client only sends
+ * the part after {@code "::"}.
+ *
+ * <p>For every template resolved through it, the index keeps the active contract ids ordered by their reversed,
+ * lower-cased form, maintained from {@link PqsChangeWatcher#subscribeIds id-only} deltas. A suffix is then a
+ * prefix of the reversed id, so resolving it is a single ceiling probe followed by a fetch by exact id, instead of
+ * a {@code LIKE '%...'} scan over the active set. Neither the index nor the watcher holds payloads for it; the
+ * contract itself is always read from PQS. A miss (or a hit that PQS
+ * no longer has active) is not trusted, since the index may lag PQS, and, like lookups before a template's active
+ * set has been loaded or with the change watcher disabled, falls back to {@link Pqs#contractByContractIdSuffix}.
+ */
+@Component
+public class ContractIdSuffixIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContractIdSuffixIndex.class);
+
+    private static final class Indexed {
+        private final ConcurrentSkipListMap<String, String> byReversedId = new ConcurrentSkipListMap<>();
+        private volatile boolean loaded;
+    }
+
+    private final Pqs pqs;
+    private final PqsChangeWatcher changeWatcher;
+    private final PqsConfig pqsConfig;
+    private final Map<Class<?>, Indexed> indexed = new ConcurrentHashMap<>();
+
+    public ContractIdSuffixIndex(Pqs pqs, PqsChangeWatcher changeWatcher, PqsConfig pqsConfig) {
+        this.pqs = pqs;
+        this.changeWatcher = changeWatcher;
+        this.pqsConfig = pqsConfig;
+    }
+
+    /**
+     * The active contract whose id ends with {@code suffix}, ignoring case. Suffixes that are not hex never match.
+     * If several contracts share the suffix, any one of them is returned.
+     */
+    public <T extends Template> CompletableFuture<Optional<Contract<T>>> find(Class<T> clazz, String suffix) {
+        if (suffix == null || !suffix.matches("^[0-9a-fA-F]+$")) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        Indexed index = watch(clazz);
+        if (!index.loaded || !pqsConfig.getChangeWatcher().isEnabled()) {
+            return pqs.contractByContractIdSuffix(clazz, suffix);
+        }
+        String prefix = reversed(suffix);
+        Map.Entry<String, String> candidate = index.byReversedId.ceilingEntry(prefix);
+        if (candidate == null || !candidate.getKey().startsWith(prefix)) {
+            logger.debug("[ContractIdSuffixIndex] miss: template={} suffixLen={}", clazz.getSimpleName(), suffix.length());
+            return pqs.contractByContractIdSuffix(clazz, suffix);
+        }
+        return pqs.contractByContractId(clazz, candidate.getValue())
+                .thenCompose(found -> found.isPresent()
+                        ? CompletableFuture.completedFuture(found)
+                        : pqs.contractByContractIdSuffix(clazz, suffix));
+    }
+
+    private Indexed watch(Class<? extends Template> clazz) {
+        Indexed existing = indexed.get(clazz);
+        if (existing != null) {
+            return existing;
+        }
+        Indexed index = new Indexed();
+        Indexed raced = indexed.putIfAbsent(clazz, index);
+        if (raced != null) {
+            return raced;
+        }
+        changeWatcher.subscribeIds(clazz, delta -> {
+            if (delta.initial()) {
+                index.byReversedId.clear();
+            }
+            delta.archived().forEach(id -> index.byReversedId.remove(reversed(id)));
+            delta.created().forEach(id -> index.byReversedId.put(reversed(id), id));
+            index.loaded = true;
+        });
+        return index;
+    }
+
+    private static String reversed(String contractId) {
+        return new StringBuilder(contractId.toLowerCase()).reverse().toString();
+    }
+}
@@ -4,6 +4,8 @@
 package com.digitalasset.quickstart.pqs;
 
 import com.digitalasset.quickstart.config.PostgresConfig;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,19 +29,48 @@ public class JdbcDataSource {
 
     /**
      * Creates a DataSource that connects to a PostgreSQL database using the configuration provided by PostgresConfig.
+     * By default connections are pooled (HikariCP); pool metrics are published through Micrometer and
+     * show up under {@code /actuator/metrics/hikaricp.*} with the tag {@code pool=pqs}.
+     * Setting {@code postgres.pool.enabled=false} falls back to a non-pooled data source.
      *
      * @return A DataSource connected to the PostgreSQL database.
      */
     @Bean
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("org.postgresql.Driver");
         String url = String.format("jdbc:postgresql://%s:%d/%s", postgresConfig.getHost(), postgresConfig.getPort(), postgresConfig.getDatabase());
-        logger.info("Connecting to {} as {}", url, postgresConfig.getUsername());
-        dataSource.setUrl(url);
-        dataSource.setUsername(postgresConfig.getUsername());
-        dataSource.setPassword(postgresConfig.getPassword()); // TODO: Make password optional
-        return dataSource;
+        PostgresConfig.Pool pool = postgresConfig.getPool();
+        if (!pool.isEnabled()) {
+            logger.info("Connecting to {} as {} (no connection pool)", url, postgresConfig.getUsername());
+            DriverManagerDataSource dataSource = new DriverManagerDataSource();
+            dataSource.setDriverClassName("org.postgresql.Driver");
+            dataSource.setUrl(url);
+            dataSource.setUsername(postgresConfig.getUsername());
+            dataSource.setPassword(postgresConfig.getPassword()); // TODO: Make password optional
+            return dataSource;
+        }
+
+        logger.info("Connecting to {} as {} (pool min={} max={})", url, postgresConfig.getUsername(),
+                pool.getMinimumIdle(), pool.getMaximumPoolSize());
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("pqs");
+        config.setDriverClassName("org.postgresql.Driver");
+        config.setJdbcUrl(url);
+        config.setUsername(postgresConfig.getUsername());
+        config.setPassword(postgresConfig.getPassword()); // TODO: Make password optional
+        config.setMinimumIdle(pool.getMinimumIdle());
+        config.setMaximumPoolSize(pool.getMaximumPoolSize());
+        config.setConnectionTimeout(pool.getConnectionTimeoutMs());
+        config.setIdleTimeout(pool.getIdleTimeoutMs());
+        config.setMaxLifetime(pool.getMaxLifetimeMs());
+        config.setKeepaliveTime(pool.getKeepaliveTimeMs());
+        config.setValidationTimeout(pool.getValidationTimeoutMs());
+        config.setLeakDetectionThreshold(pool.getLeakDetectionThresholdMs());
+        // Do not fail startup when PQS is not reachable yet; connections are established lazily.
+        config.setInitializationFailTimeout(-1);
+        config.addDataSourceProperty("prepareThreshold", pool.getPrepareThreshold());
+        config.addDataSourceProperty("preparedStatementCacheQueries", pool.getPreparedStatementCacheQueries());
+        config.addDataSourceProperty("preparedStatementCacheSizeMiB", pool.getPreparedStatementCacheSizeMiB());
+        return new HikariDataSource(config);
     }
 
     @Bean
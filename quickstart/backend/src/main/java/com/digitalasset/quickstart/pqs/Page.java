@@ -0,0 +1,64 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.pqs;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * One page of a listing ordered by contract id, with the cursor of the next page (null on the last page).
+ */
+public record Page<T>(List<T> items, String nextCursor) {
+
+    public static <T> Page<T> empty() {
+        return new Page<>(List.of(), null);
+    }
+
+    /**
+     * Page from rows fetched with one row more than {@code request.limit()}; the extra row only tells that
+     * another page exists.
+     */
+    public static <T> Page<T> fromLookahead(List<T> fetched, PageRequest request, Function<T, String> contractId) {
+        if (fetched.size() <= request.limit()) {
+            return new Page<>(fetched, null);
+        }
+        List<T> items = List.copyOf(fetched.subList(0, request.limit()));
+        return new Page<>(items, PageRequest.cursorOf(contractId.apply(items.get(items.size() - 1))));
+    }
+
+    /** Page of a listing that was assembled in memory rather than read page-wise from PQS. */
+    public static <T> Page<T> slice(List<T> all, PageRequest request, Function<T, String> contractId) {
+        List<T> fetched = all.stream()
+                .filter(t -> request.afterContractId() == null || contractId.apply(t).compareTo(request.afterContractId()) > 0)
+                .sorted(Comparator.comparing(contractId))
+                .limit(request.limit() + 1L)
+                .toList();
+        return fromLookahead(fetched, request, contractId);
+    }
+
+    /**
+     * The page of the union of several listings, each already paged with the same {@code request}. The first
+     * {@code limit} items of the union are among the first {@code limit} items of its parts, so only those are
+     * compared; items with the same contract id are kept once.
+     */
+    public static <T> Page<T> merge(List<Page<T>> parts, PageRequest request, Function<T, String> contractId) {
+        var byId = new TreeMap<String, T>();
+        boolean more = false;
+        for (Page<T> part : parts) {
+            part.items().forEach(item -> byId.putIfAbsent(contractId.apply(item), item));
+            more |= part.nextCursor() != null;
+        }
+        List<T> items = byId.values().stream().limit(request.limit()).toList();
+        if (!more && byId.size() <= request.limit()) {
+            return new Page<>(items, null);
+        }
+        return new Page<>(items, PageRequest.cursorOf(contractId.apply(items.get(items.size() - 1))));
+    }
+
+    public <R> Page<R> map(Function<T, R> mapper) {
+        return new Page<>(items.stream().map(mapper).toList(), nextCursor);
+    }
+}
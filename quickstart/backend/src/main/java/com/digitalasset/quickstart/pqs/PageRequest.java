@@ -0,0 +1,56 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.pqs;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position and size of a keyset-paginated listing. Pages are ordered by contract id; {@code afterContractId}
+ * is the last id of the previous page, or null for the first page. Clients only ever see it as an opaque cursor.
+ * An {@link #unpaged()} request returns the whole listing as a single page.
+ */
+public record PageRequest(int limit, String afterContractId) {
+
+    public PageRequest {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        }
+    }
+
+    /** The whole listing in one page, without a cursor. */
+    public static PageRequest unpaged() {
+        return new PageRequest(Integer.MAX_VALUE, null);
+    }
+
+    public boolean isUnpaged() {
+        return limit == Integer.MAX_VALUE;
+    }
+
+    /** Rows to read: one more than the limit, so the extra row tells whether another page exists; null if unpaged. */
+    public Long lookaheadLimit() {
+        return isUnpaged() ? null : limit + 1L;
+    }
+
+    /**
+     * The page after {@code cursor} (the first page if null or blank).
+     *
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #cursorOf}
+     */
+    public static PageRequest of(int limit, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new PageRequest(limit, null);
+        }
+        String contractId = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (contractId.isEmpty()) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new PageRequest(limit, contractId);
+    }
+
+    /** Opaque cursor for the page following the given contract id. */
+    public static String cursorOf(String contractId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(contractId.getBytes(StandardCharsets.UTF_8));
+    }
+}
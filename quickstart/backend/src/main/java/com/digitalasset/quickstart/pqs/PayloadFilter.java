@@ -0,0 +1,92 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.pqs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Typed predicate on the JSON payload of a contract, for {@link Pqs#activeWhere(Class, PayloadFilter)}.
+ *
+ * <p>A party field may be stored either as a plain string or as {@code {"party": "..."}}. {@link #party}
+ * normalizes both shapes with {@link #partyExpression}, so the predicate is one comparison instead of an
+ * {@code OR} over two JSON paths.
+ *
+ * <p>Filters are evaluated over the rows returned by PQS's {@code active(?)} function, i.e. they narrow a scan of
+ * the template's active set rather than turning it into an index lookup. No index on the PQS contract table is
+ * created by this backend: PQS owns that table, and whether the planner could push these predicates through
+ * {@code active()} to such an index has not been verified.
+ */
+public final class PayloadFilter {
+
+    private static final Pattern FIELD_NAME = Pattern.compile("^[A-Za-z_][A-Za-z0-9_]*$");
+
+    private final String sql;
+    private final List<Object> params;
+
+    private PayloadFilter(String sql, List<Object> params) {
+        this.sql = sql;
+        this.params = params;
+    }
+
+    /** The party stored in {@code field} equals {@code party}. */
+    public static PayloadFilter party(String field, String party) {
+        return new PayloadFilter(partyExpression(field) + " = ?", List.of(party));
+    }
+
+    /** The party stored in any of {@code fields} equals {@code party}. */
+    public static PayloadFilter anyParty(String party, String... fields) {
+        PayloadFilter filter = party(fields[0], party);
+        for (int i = 1; i < fields.length; i++) {
+            filter = filter.or(party(fields[i], party));
+        }
+        return filter;
+    }
+
+    /** The text value of the top-level {@code field} equals {@code value}. */
+    public static PayloadFilter text(String field, String value) {
+        return new PayloadFilter("payload->>'" + checkedField(field) + "' = ?", List.of(value));
+    }
+
+    public PayloadFilter and(PayloadFilter other) {
+        return combine("AND", other);
+    }
+
+    public PayloadFilter or(PayloadFilter other) {
+        return combine("OR", other);
+    }
+
+    /** SQL expression for a party field in either stored shape (a plain string or {@code {"party": "..."}}). */
+    public static String partyExpression(String field) {
+        String name = checkedField(field);
+        return "coalesce(payload->'" + name + "'->>'party', payload->>'" + name + "')";
+    }
+
+    String sql() {
+        return sql;
+    }
+
+    Object[] params() {
+        return params.toArray();
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+
+    private PayloadFilter combine(String operator, PayloadFilter other) {
+        List<Object> combined = new ArrayList<>(params);
+        combined.addAll(other.params);
+        return new PayloadFilter("(" + sql + " " + operator + " " + other.sql + ")", List.copyOf(combined));
+    }
+
+    private static String checkedField(String field) {
+        if (field == null || !FIELD_NAME.matcher(field).matches()) {
+            throw new IllegalArgumentException("Invalid payload field name: " + field);
+        }
+        return field;
+    }
+}
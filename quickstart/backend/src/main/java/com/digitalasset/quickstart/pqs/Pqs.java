@@ -5,6 +5,7 @@ package com.digitalasset.quickstart.pqs;
 
 import static com.digitalasset.quickstart.utility.TracingUtils.*;
 
+import com.digitalasset.quickstart.config.PqsConfig;
 import com.digitalasset.transcode.Converter;
 import com.digitalasset.transcode.codec.json.JsonStringCodec;
 import com.digitalasset.transcode.java.ContractId;
@@ -15,16 +16,26 @@ import com.digitalasset.transcode.schema.Identifier;
 import daml.Daml;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
@@ -38,12 +49,18 @@ public class Pqs {
 
     private static final Logger logger = LoggerFactory.getLogger(Pqs.class);
 
+    private static final int CONTRACT_ID_BATCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
+    private final PqsQueryExecutor executor;
     private final Dictionary<Converter<String, Object>> json2Dto;
+    private final int streamFetchSize;
 
     @Autowired
-    public Pqs(JdbcTemplate jdbcTemplate) {
+    public Pqs(JdbcTemplate jdbcTemplate, PqsQueryExecutor executor, PqsConfig pqsConfig) {
         this.jdbcTemplate = jdbcTemplate;
+        this.executor = executor;
+        this.streamFetchSize = pqsConfig.getStreamFetchSize();
         this.json2Dto = Utils.getConverters(new JsonStringCodec(true, true, false), Daml.ENTITIES);
     }
 
@@ -57,7 +74,7 @@ public class Pqs {
         return runAndTraceAsync(ctx, () -> {
             String sql = "select contract_id, payload from active(?)";
             return jdbcTemplate.query(sql, new PqsContractRowMapper<>(identifier), identifier.qualifiedName());
-        });
+        }, executor);
     }
 
     /**
@@ -78,7 +95,109 @@ public class Pqs {
         return runAndTraceAsync(ctx, () -> {
             String sql = "select contract_id, payload from active(?) where " + whereClause;
             return jdbcTemplate.query(sql, new PqsContractRowMapper<>(identifier), combineParams(identifier.qualifiedName(), params));
-        });
+        }, executor);
+    }
+
+    /**
+     * Retrieves all active contracts of a specific template type matching a typed payload filter.
+     */
+    public <T extends Template> CompletableFuture<List<Contract<T>>> activeWhere(Class<T> clazz, PayloadFilter filter) {
+        return activeWhere(clazz, filter.sql(), filter.params());
+    }
+
+    /**
+     * One page of the active contracts of a template, ordered by contract id (byte-wise, so the order does
+     * not depend on the database collation), optionally restricted to {@code filter}. Reads at most
+     * {@code limit + 1} rows, or every matching row for an unpaged request.
+     */
+    @WithSpan
+    public <T extends Template> CompletableFuture<Page<Contract<T>>> activePage(
+            Class<T> clazz,
+            PayloadFilter filter,
+            PageRequest page
+    ) {
+        Identifier identifier = Utils.getTemplateIdByClass(clazz);
+        var ctx = tracingCtx(logger, "activePage",
+                "templateId", identifier.qualifiedName(),
+                "filter", filter,
+                "limit", page.limit()
+        );
+        return runAndTraceAsync(ctx, () -> {
+            List<String> conditions = new ArrayList<>();
+            List<Object> params = new ArrayList<>();
+            params.add(identifier.qualifiedName());
+            if (filter != null) {
+                conditions.add(filter.sql());
+                params.addAll(List.of(filter.params()));
+            }
+            if (page.afterContractId() != null) {
+                conditions.add("contract_id COLLATE \"C\" > ?");
+                params.add(page.afterContractId());
+            }
+            String sql = "select contract_id, payload from active(?)"
+                    + (conditions.isEmpty() ? "" : " where " + String.join(" AND ", conditions))
+                    + " order by contract_id COLLATE \"C\"";
+            if (!page.isUnpaged()) {
+                sql += " limit ?";
+                params.add(page.lookaheadLimit());
+            }
+            List<Contract<T>> rows = jdbcTemplate.query(sql, new PqsContractRowMapper<>(identifier), params.toArray());
+            return Page.fromLookahead(rows, page, c -> c.contractId.getContractId);
+        }, executor);
+    }
+
+    /**
+     * Streams a projection of the active contracts of a template without decoding their payloads.
+     * {@code selectList} picks the columns, typically {@code contract_id} and {@code payload->>'field'}
+     * expressions, and {@code rowMapper} reads them, so only the selected fields leave the database and no
+     * Daml DTO is built. Rows are read through a server-side cursor ({@code pqs.stream-fetch-size} rows per round
+     * trip), so memory stays bounded regardless of the size of the active set. The consumer runs on the PQS
+     * executor thread while the cursor is open and must not block. Completes with the number of rows streamed.
+     */
+    @WithSpan
+    public <T extends Template, R> CompletableFuture<Long> forEachActiveProjected(
+            Class<T> clazz,
+            String selectList,
+            RowMapper<R> rowMapper,
+            Consumer<R> consumer
+    ) {
+        Identifier identifier = Utils.getTemplateIdByClass(clazz);
+        return streamActive(identifier, "select " + selectList + " from active(?)", rowMapper, consumer);
+    }
+
+    private <R> CompletableFuture<Long> streamActive(
+            Identifier identifier,
+            String sql,
+            RowMapper<R> mapper,
+            Consumer<R> consumer
+    ) {
+        var ctx = tracingCtx(logger, "streamActive",
+                "templateId", identifier.qualifiedName(),
+                "sql", sql
+        );
+        return runAndTraceAsync(ctx, () -> jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            // The Postgres driver only uses a cursor (instead of buffering the whole result) inside a transaction.
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                ps.setFetchSize(streamFetchSize);
+                ps.setString(1, identifier.qualifiedName());
+                long count = 0;
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(mapper.mapRow(rs, (int) count));
+                        count++;
+                    }
+                }
+                con.commit();
+                return count;
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+        }), executor);
     }
 
     /**
@@ -102,12 +221,13 @@ public class Pqs {
             } catch (EmptyResultDataAccessException e) {
                 return Optional.empty();
             }
-        });
+        }, executor);
     }
 
     /**
      * Finds a contract whose contract_id ends with the given suffix (hex only).
-     * Used when the client sends only the suffix and PQS stores "prefix::suffix".
+     * Used when the client sends only the suffix and PQS stores "prefix::suffix". This scans the template's
+     * active set; callers should go through {@link ContractIdSuffixIndex}, which only falls back to it.
      */
     @WithSpan
     public <T extends Template> CompletableFuture<Optional<Contract<T>>> contractByContractIdSuffix(
@@ -134,7 +254,7 @@ public class Pqs {
                 logger.info("[PQS contractByContractIdSuffix] miss: template={} suffixLen={} no row", identifier.qualifiedName(), suffix.length());
             }
             return list.isEmpty() ? Optional.empty() : Optional.of(list.get(0));
-        });
+        }, executor);
     }
 
     @WithSpan
@@ -146,9 +266,67 @@ public class Pqs {
         return runAndTraceAsync(ctx, () -> {
             jdbcTemplate.query(sql, callback, params);
             return null;
+        }, executor);
+    }
+
+    /**
+     * The latest offset PQS has indexed, as returned by {@code watermarkQuery} (a single-row, single-column
+     * query). It only moves when PQS has ingested a transaction, so it is a constant-cost change detector.
+     * Not traced, as it is polled frequently.
+     */
+    public CompletableFuture<String> latestOffset(String watermarkQuery) {
+        return supplyUntraced(() -> jdbcTemplate.queryForObject(watermarkQuery, (rs, rowNum) -> rs.getString(1)));
+    }
+
+    /**
+     * Contract ids of all active contracts of a template, without payloads. Not traced.
+     */
+    public <T extends Template> CompletableFuture<Set<String>> activeContractIds(Class<T> clazz) {
+        Identifier identifier = Utils.getTemplateIdByClass(clazz);
+        return supplyUntraced(() -> {
+            Set<String> ids = new HashSet<>();
+            jdbcTemplate.query("select contract_id from active(?)",
+                    (RowCallbackHandler) rs -> ids.add(rs.getString("contract_id")),
+                    identifier.qualifiedName());
+            return ids;
         });
     }
 
+    /**
+     * Active contracts of a template restricted to the given contract ids (missing or archived ids are skipped).
+     */
+    @WithSpan
+    public <T extends Template> CompletableFuture<List<Contract<T>>> activeByContractIds(
+            Class<T> clazz,
+            Collection<String> contractIds
+    ) {
+        Identifier identifier = Utils.getTemplateIdByClass(clazz);
+        var ctx = tracingCtx(logger, "activeByContractIds",
+                "templateId", identifier.qualifiedName(),
+                "count", contractIds.size()
+        );
+        return runAndTraceAsync(ctx, () -> {
+            List<String> ids = new ArrayList<>(contractIds);
+            List<Contract<T>> result = new ArrayList<>(ids.size());
+            for (int from = 0; from < ids.size(); from += CONTRACT_ID_BATCH_SIZE) {
+                List<String> chunk = ids.subList(from, Math.min(ids.size(), from + CONTRACT_ID_BATCH_SIZE));
+                String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+                String sql = "select contract_id, payload from active(?) where contract_id in (" + placeholders + ")";
+                result.addAll(jdbcTemplate.query(sql, new PqsContractRowMapper<>(identifier),
+                        combineParams(identifier.qualifiedName(), chunk.toArray())));
+            }
+            return result;
+        }, executor);
+    }
+
+    private <R> CompletableFuture<R> supplyUntraced(Supplier<R> body) {
+        try {
+            return CompletableFuture.supplyAsync(body, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
     private Object[] combineParams(String qname, Object... params) {
         Object[] combined = new Object[params.length + 1];
         combined[0] = qname;
@@ -160,19 +338,21 @@ public class Pqs {
         return json2Dto;
     }
 
+    /** Maps {@code contract_id, payload} rows to contracts; the template converter is resolved once per query. */
     private class PqsContractRowMapper<T extends Template> implements RowMapper<Contract<T>> {
-        private final Identifier templateId;
+        private final Converter<String, Object> converter;
 
         public PqsContractRowMapper(Identifier templateId) {
-            this.templateId = templateId;
+            this.converter = json2Dto.template(templateId);
         }
 
-        @WithSpan
+        // No span per row: a streamed scan maps thousands of rows under the caller's span.
         @Override
+        @SuppressWarnings("unchecked")
         public Contract<T> mapRow(ResultSet rs, int rowNum) throws SQLException {
             return new Contract<>(
                     new ContractId<>(rs.getString("contract_id")),
-                    (T) json2Dto.template(templateId).convert(rs.getString("payload"))
+                    (T) converter.convert(rs.getString("payload"))
             );
         }
     }
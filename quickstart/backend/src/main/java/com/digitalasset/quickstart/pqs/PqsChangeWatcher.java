@@ -0,0 +1,252 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.pqs;
+
+import com.digitalasset.quickstart.config.PqsConfig;
+import com.digitalasset.transcode.java.Template;
+import com.digitalasset.transcode.java.Utils;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Watches the PQS active set of selected templates and notifies subscribers with contract-level deltas
+ * as soon as PQS has indexed a change.
+ *
+ * <p>Each poll only reads the PQS offset watermark ({@code pqs.change-watcher.watermark-query}). When it has
+ * moved, the active contract ids of each watched template are diffed against the known set. The watcher itself
+ * only keeps contract ids: payloads of newly created contracts are fetched for {@link #subscribe} listeners, and
+ * not at all for a template that only has {@link #subscribeIds} listeners (e.g. caches and indexes). New
+ * subscribers first receive the current active set as an initial delta, which for payload listeners is fetched
+ * on the next poll.
+ *
+ * <p>Queries run on the PQS executor, never on the scheduler thread, and a poll is skipped while the previous
+ * one is still running. Templates are refreshed one after the other, so listeners are never invoked
+ * concurrently; they run on a PQS executor thread and must not block.
+ */
+@Component
+public class PqsChangeWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PqsChangeWatcher.class);
+
+    /**
+     * Change to the active set of a template since the previous notification.
+     *
+     * @param created  contracts that became active
+     * @param archived contract ids that are no longer active
+     * @param initial  true for the replay of the full active set delivered on subscription or first load
+     */
+    public record ContractDelta<T extends Template>(
+            Class<T> templateClass,
+            List<Contract<T>> created,
+            Set<String> archived,
+            boolean initial) {
+
+        public boolean isEmpty() {
+            return created.isEmpty() && archived.isEmpty();
+        }
+    }
+
+    /** Like {@link ContractDelta}, with the ids of the created contracts only. */
+    public record ContractIdDelta(
+            Class<?> templateClass,
+            Set<String> created,
+            Set<String> archived,
+            boolean initial) {
+
+        public boolean isEmpty() {
+            return created.isEmpty() && archived.isEmpty();
+        }
+    }
+
+    private final Pqs pqs;
+    private final PqsConfig pqsConfig;
+    private final Map<Class<?>, Watched<?>> watched = new ConcurrentHashMap<>();
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private volatile boolean watermarkFailing;
+
+    public PqsChangeWatcher(Pqs pqs, PqsConfig pqsConfig) {
+        this.pqs = pqs;
+        this.pqsConfig = pqsConfig;
+    }
+
+    /**
+     * Start watching a template (if not already watched) and register a listener for its deltas.
+     * On the next poll, the listener receives the template's current active set as an initial delta.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Template> void subscribe(Class<T> clazz, Consumer<ContractDelta<T>> listener) {
+        Watched<T> w = (Watched<T>) watched.computeIfAbsent(clazz, c -> new Watched<>(clazz));
+        w.subscribe(listener);
+    }
+
+    /**
+     * Like {@link #subscribe}, for listeners that only need contract ids; payloads are not fetched for them.
+     * If the template's active set has already been loaded, the listener immediately receives its ids.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Template> void subscribeIds(Class<T> clazz, Consumer<ContractIdDelta> listener) {
+        Watched<T> w = (Watched<T>) watched.computeIfAbsent(clazz, c -> new Watched<>(clazz));
+        w.subscribeIds(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${pqs.change-watcher.poll-interval-ms:250}")
+    public void poll() {
+        if (!pqsConfig.getChangeWatcher().isEnabled() || watched.isEmpty() || !polling.compareAndSet(false, true)) {
+            return;
+        }
+        pqs.latestOffset(pqsConfig.getChangeWatcher().getWatermarkQuery())
+                .thenCompose(offset -> {
+                    if (watermarkFailing) {
+                        logger.info("[PqsChangeWatcher] offset watermark readable again");
+                        watermarkFailing = false;
+                    }
+                    CompletableFuture<Void> refreshes = CompletableFuture.completedFuture(null);
+                    for (Watched<?> w : watched.values()) {
+                        if (w.isStale(offset)) {
+                            refreshes = refreshes.thenCompose(v -> w.refresh(offset));
+                        }
+                    }
+                    return refreshes;
+                })
+                .whenComplete((v, ex) -> {
+                    if (ex != null) {
+                        if (!watermarkFailing) {
+                            logger.warn("[PqsChangeWatcher] reading the offset watermark failed (will keep retrying): {}",
+                                    ex.getMessage());
+                            watermarkFailing = true;
+                        } else {
+                            logger.debug("[PqsChangeWatcher] reading the offset watermark failed: {}", ex.getMessage());
+                        }
+                    }
+                    polling.set(false);
+                });
+    }
+
+    private final class Watched<T extends Template> {
+        private final Class<T> clazz;
+        private final String templateName;
+        private final List<Consumer<ContractDelta<T>>> listeners = new CopyOnWriteArrayList<>();
+        // Payload listeners that still need the active set as their initial delta; served by the next refresh
+        private final List<Consumer<ContractDelta<T>>> pending = new ArrayList<>();
+        private final List<Consumer<ContractIdDelta>> idListeners = new CopyOnWriteArrayList<>();
+        private final Set<String> active = new HashSet<>();
+        private volatile String offset;
+        private volatile boolean loaded;
+        private boolean failing;
+
+        Watched(Class<T> clazz) {
+            this.clazz = clazz;
+            this.templateName = Utils.getTemplateIdByClass(clazz).qualifiedName();
+        }
+
+        synchronized void subscribe(Consumer<ContractDelta<T>> listener) {
+            pending.add(listener);
+        }
+
+        synchronized void subscribeIds(Consumer<ContractIdDelta> listener) {
+            idListeners.add(listener);
+            if (loaded) {
+                listener.accept(new ContractIdDelta(clazz, Set.copyOf(active), Set.of(), true));
+            }
+        }
+
+        synchronized boolean isStale(String latestOffset) {
+            return !loaded || !pending.isEmpty() || !Objects.equals(latestOffset, offset);
+        }
+
+        /**
+         * Diffs the active set against {@code latestOffset}. The offset was read before the active set, so a
+         * change indexed in between only causes one more refresh on the next poll. Payloads are only fetched for
+         * payload listeners: the created contracts, or the whole active set if a listener is waiting for its
+         * initial delta. Never completes exceptionally.
+         */
+        CompletableFuture<Void> refresh(String latestOffset) {
+            return pqs.activeContractIds(clazz)
+                    .thenCompose(ids -> {
+                        Set<String> archived;
+                        Set<String> createdIds = new HashSet<>(ids);
+                        List<Consumer<ContractDelta<T>>> joining;
+                        boolean fetchCreated;
+                        synchronized (this) {
+                            archived = new HashSet<>(active);
+                            archived.removeAll(ids);
+                            createdIds.removeAll(active);
+                            joining = List.copyOf(pending);
+                            fetchCreated = !listeners.isEmpty();
+                        }
+                        Set<String> fetch = !joining.isEmpty() ? ids : fetchCreated ? createdIds : Set.of();
+                        CompletableFuture<List<Contract<T>>> fetched = fetch.isEmpty()
+                                ? CompletableFuture.completedFuture(List.of())
+                                : pqs.activeByContractIds(clazz, fetch);
+                        return fetched.thenAccept(contracts -> {
+                            apply(latestOffset, createdIds, archived, contracts, joining);
+                            if (failing) {
+                                logger.info("[PqsChangeWatcher] {} recovered, tracking {} active contract(s)",
+                                        templateName, ids.size());
+                                failing = false;
+                            }
+                        });
+                    })
+                    .exceptionally(e -> {
+                        if (!failing) {
+                            logger.warn("[PqsChangeWatcher] polling {} failed (will keep retrying): {}", templateName, e.getMessage());
+                            failing = true;
+                        } else {
+                            logger.debug("[PqsChangeWatcher] polling {} failed: {}", templateName, e.getMessage());
+                        }
+                        return null;
+                    });
+        }
+
+        private synchronized void apply(String latestOffset, Set<String> createdIds, Set<String> archived,
+                                        List<Contract<T>> fetched, List<Consumer<ContractDelta<T>>> joining) {
+            boolean initial = !loaded;
+            active.removeAll(archived);
+            active.addAll(createdIds);
+            offset = latestOffset;
+            loaded = true;
+
+            var idDelta = new ContractIdDelta(clazz, createdIds, archived, initial);
+            if (initial || !idDelta.isEmpty()) {
+                logger.debug("[PqsChangeWatcher] {} changed: created={} archived={} initial={}",
+                        templateName, createdIds.size(), archived.size(), initial);
+                idListeners.forEach(listener -> notify(listener, idDelta));
+                if (!listeners.isEmpty()) {
+                    List<Contract<T>> created = joining.isEmpty()
+                            ? fetched
+                            : fetched.stream().filter(c -> createdIds.contains(c.contractId.getContractId)).toList();
+                    var delta = new ContractDelta<>(clazz, created, archived, initial);
+                    listeners.forEach(listener -> notify(listener, delta));
+                }
+            }
+            if (!joining.isEmpty()) {
+                var snapshot = new ContractDelta<>(clazz, fetched, Set.<String>of(), true);
+                joining.forEach(listener -> notify(listener, snapshot));
+                pending.removeAll(joining);
+                listeners.addAll(joining);
+            }
+        }
+
+        private <D> void notify(Consumer<D> listener, D delta) {
+            try {
+                listener.accept(delta);
+            } catch (Exception e) {
+                logger.warn("[PqsChangeWatcher] listener for {} failed", templateName, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.pqs;
+
+import com.digitalasset.quickstart.config.PqsConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded executor dedicated to blocking PQS (JDBC) queries, so they do not compete with
+ * the JVM common pool. Publishes queue depth, active count, queue wait time and rejections
+ * as {@code pqs.executor.*} metrics.
+ */
+@Component
+public class PqsQueryExecutor implements Executor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PqsQueryExecutor.class);
+
+    private final ThreadPoolExecutor pool;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public PqsQueryExecutor(PqsConfig pqsConfig, MeterRegistry meterRegistry) {
+        PqsConfig.Executor cfg = pqsConfig.getExecutor();
+        this.pool = new ThreadPoolExecutor(
+                cfg.getThreads(), cfg.getThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, cfg.getQueueCapacity())),
+                threadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.pool.allowCoreThreadTimeOut(true);
+
+        this.waitTimer = Timer.builder("pqs.executor.wait")
+                .description("Time PQS queries spend queued before running")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("pqs.executor.rejected")
+                .description("PQS queries rejected because the executor was saturated")
+                .register(meterRegistry);
+        Gauge.builder("pqs.executor.queue.depth", pool, p -> p.getQueue().size())
+                .description("PQS queries waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("pqs.executor.active", pool, ThreadPoolExecutor::getActiveCount)
+                .description("PQS queries currently running")
+                .register(meterRegistry);
+
+        logger.info("PQS query executor started: threads={} queueCapacity={}", cfg.getThreads(), cfg.getQueueCapacity());
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            pool.execute(() -> {
+                waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                command.run();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PqsSaturatedException("PQS query executor saturated: active=" + pool.getActiveCount()
+                    + " queued=" + pool.getQueue().size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "pqs-query-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,19 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.pqs;
+
+import java.util.concurrent.RejectedExecutionException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the PQS query executor has no free thread and its queue is full.
+ * Surfaces to HTTP clients as 503 so they can back off and retry.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "PQS query capacity exhausted, retry later")
+public class PqsSaturatedException extends RejectedExecutionException {
+    public PqsSaturatedException(String message) {
+        super(message);
+    }
+}
@@ -4,17 +4,27 @@
 package com.digitalasset.quickstart.repository;
 
 import com.digitalasset.quickstart.pqs.Contract;
+import com.digitalasset.quickstart.pqs.ContractCache;
+import com.digitalasset.quickstart.pqs.ContractIdSuffixIndex;
+import com.digitalasset.quickstart.pqs.Page;
+import com.digitalasset.quickstart.pqs.PageRequest;
+import com.digitalasset.quickstart.pqs.PayloadFilter;
 import com.digitalasset.quickstart.pqs.Pqs;
 import com.digitalasset.transcode.java.ContractId;
 import com.digitalasset.transcode.java.Template;
 import com.digitalasset.transcode.java.Utils;
 
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,10 +58,14 @@ public class DamlRepository {
     private static final Logger logger = LoggerFactory.getLogger(DamlRepository.class);
 
     private final Pqs pqs;
+    private final ContractCache contractCache;
+    private final ContractIdSuffixIndex suffixIndex;
 
     @Autowired
-    public DamlRepository(Pqs pqs) {
+    public DamlRepository(Pqs pqs, ContractCache contractCache, ContractIdSuffixIndex suffixIndex) {
         this.pqs = pqs;
+        this.contractCache = contractCache;
+        this.suffixIndex = suffixIndex;
     }
 
     private static boolean isPqsIdentifierNotFound(Throwable t) {
@@ -76,6 +90,21 @@ public class DamlRepository {
         throw ex instanceof RuntimeException re ? re : new CompletionException(ex);
     }
 
+    private static <R> List<R> handlePqsTemplateNotFoundRows(Throwable ex, String templateName) {
+        DamlRepository.<Template>handlePqsTemplateNotFound(ex, templateName);
+        return Collections.emptyList();
+    }
+
+    private static <R> Page<R> handlePqsTemplateNotFoundPage(Throwable ex, String templateName) {
+        DamlRepository.<Template>handlePqsTemplateNotFound(ex, templateName);
+        return Page.empty();
+    }
+
+    private static long handlePqsTemplateNotFoundCount(Throwable ex, String templateName) {
+        DamlRepository.<Template>handlePqsTemplateNotFound(ex, templateName);
+        return 0L;
+    }
+
     @SuppressWarnings("unchecked")
     private static <T extends Template> Optional<Contract<T>> handlePqsTemplateNotFoundOptional(Throwable ex, String templateName) {
         var cause = ex instanceof CompletionException ce ? ce.getCause() : ex;
@@ -106,6 +135,19 @@ public class DamlRepository {
             Optional<ContractId<Allocation>> allocationCid) {
     }
 
+    /** Aggregate of the active orders at one (rate, duration) level of the order book. */
+    public record OrderBookTierRow(BigDecimal interestRate, long duration, BigDecimal totalAmount, int orderCount) {
+    }
+
+    /** Level and open amount of a single active order, as projected from its payload in SQL. */
+    public record OrderLevelRow(BigDecimal interestRate, long duration, BigDecimal amount) {
+    }
+
+    /** The fields of an active Loan that platform statistics use, as projected from its payload in SQL. */
+    public record LoanStatsRow(String contractId, boolean active, BigDecimal principal, BigDecimal interestRate,
+                               String lender, String borrower) {
+    }
+
     private <T extends Template> T extractPayload(Class<T> clazz, String payload) {
         return clazz.cast(pqs.getJson2Dto().template(Utils.getTemplateIdByClass(clazz)).convert(payload));
     }
@@ -127,25 +169,34 @@ public class DamlRepository {
     }
 
     /**
-     * Finds active License contracts where the user or provider matches the given party.
+     * Finds one page of active License contracts where the user or provider matches the given party,
+     * ordered by license contract id. The page limit applies to licenses, not to the joined renewal rows;
+     * an unpaged request passes a null limit, which Postgres treats as no limit.
      */
-    public CompletableFuture<List<LicenseWithRenewalRequests>> findActiveLicenses(String party) {
-        var map = new HashMap<String, LicenseWithRenewalRequests>();
+    public CompletableFuture<Page<LicenseWithRenewalRequests>> findActiveLicenses(String party, PageRequest page) {
+        var map = new LinkedHashMap<String, LicenseWithRenewalRequests>();
         String sql = """
+                WITH license AS (
+                    SELECT contract_id, payload
+                    FROM active(?)
+                    WHERE (payload->>'user' = ? OR payload->>'provider' = ?)
+                      AND (CAST(? AS text) IS NULL OR contract_id COLLATE "C" > ?)
+                    ORDER BY contract_id COLLATE "C"
+                    LIMIT CAST(? AS bigint)
+                )
                 SELECT license.contract_id    AS license_contract_id,
                        license.payload        AS license_payload,
                        renewal.contract_id    AS renewal_contract_id,
                        renewal.payload        AS renewal_payload,
                        allocation.contract_id AS allocation_contract_id
-                FROM active(?) license
+                FROM license
                 LEFT JOIN active(?) renewal ON
                     license.payload->>'licenseNum' = renewal.payload->>'licenseNum'
                     AND license.payload->>'user' = renewal.payload->>'user'
                 LEFT JOIN active(?) allocation ON
                     renewal.payload->>'requestId' = allocation.payload->'allocation'->'settlement'->'settlementRef'->>'id'
                     AND renewal.payload->>'user' = allocation.payload->'allocation'->'transferLeg'->>'sender'
-                WHERE license.payload->>'user' = ? OR license.payload->>'provider' = ?
-                ORDER BY license.contract_id
+                ORDER BY license.contract_id COLLATE "C"
                 """;
         return pqs.query(sql, rs -> {
                     var licenseId = rs.getString("license_contract_id");
@@ -167,11 +218,15 @@ public class DamlRepository {
                     }
                 },
                 qualifiedName(License.class),
-                qualifiedName(LicenseRenewalRequest.class),
-                qualifiedName(Allocation.class),
                 party,
-                party
-        ).thenApply(v -> new java.util.ArrayList<>(map.values()));
+                party,
+                page.afterContractId(),
+                page.afterContractId(),
+                page.lookaheadLimit(),
+                qualifiedName(LicenseRenewalRequest.class),
+                qualifiedName(Allocation.class)
+        ).thenApply(v -> Page.fromLookahead(new ArrayList<>(map.values()), page,
+                l -> l.license().contractId.getContractId));
     }
 
     /**
@@ -204,10 +259,10 @@ public class DamlRepository {
     }
 
     /**
-     * Finds all active AppInstall contracts.
+     * Finds one page of active AppInstall contracts where the party is the provider or the user.
      */
-    public CompletableFuture<List<Contract<AppInstall>>> findActiveAppInstalls() {
-        return pqs.active(AppInstall.class);
+    public CompletableFuture<Page<Contract<AppInstall>>> findActiveAppInstalls(String party, PageRequest page) {
+        return pqs.activePage(AppInstall.class, PayloadFilter.anyParty(party, "provider", "user"), page);
     }
 
     /**
@@ -220,7 +275,7 @@ public class DamlRepository {
     // --- Loan module (privacy: queries use party filter; visibility is per-template) ---
 
     public CompletableFuture<List<Contract<CreditProfile>>> findActiveCreditProfilesByBorrower(String party) {
-        return pqs.activeWhere(CreditProfile.class, "payload->>'borrower' = ?", party)
+        return pqs.activeWhere(CreditProfile.class, PayloadFilter.party("borrower", party))
                 .exceptionally(ex -> handlePqsTemplateNotFound(ex, "CreditProfile"));
     }
 
@@ -230,15 +285,18 @@ public class DamlRepository {
     }
 
     public CompletableFuture<List<Contract<LoanRequest>>> findActiveLoanRequestsByBorrower(String party) {
-        return pqs.activeWhere(LoanRequest.class,
-                "(payload->>'borrower' = ? OR payload->'borrower'->>'party' = ?)",
-                party, party)
+        return pqs.activeWhere(LoanRequest.class, PayloadFilter.party("borrower", party))
                 .exceptionally(ex -> handlePqsTemplateNotFound(ex, "LoanRequest"));
     }
 
+    public CompletableFuture<Page<Contract<LoanRequest>>> findActiveLoanRequestsByBorrower(String party, PageRequest page) {
+        return pqs.activePage(LoanRequest.class, PayloadFilter.party("borrower", party), page)
+                .exceptionally(ex -> handlePqsTemplateNotFoundPage(ex, "LoanRequest"));
+    }
+
     /**
-     * Find LoanRequest by contract ID. Tries as-is first; if not found, tries format variants
-     * and finally a PQS suffix lookup so both "participant::suffix" and "suffix" work.
+     * Find LoanRequest by contract ID. Tries as-is first; if not found, resolves the hex part after the last
+     * "::" (or the whole id) as a suffix so both "participant::suffix" and "suffix" work.
      */
     public CompletableFuture<Optional<Contract<LoanRequest>>> findLoanRequestById(String contractId) {
         logger.info("[findLoanRequestById] lookup requested id={} (length={})", contractId, contractId != null ? contractId.length() : 0);
@@ -248,40 +306,19 @@ public class DamlRepository {
                         logger.info("[findLoanRequestById] FOUND by exact id");
                         return CompletableFuture.completedFuture(opt);
                     }
-                    logger.info("[findLoanRequestById] exact match missed, trying fallbacks");
                     if (contractId == null || contractId.isEmpty())
                         return CompletableFuture.completedFuture(Optional.empty());
                     String suffix = contractId.contains("::")
                             ? contractId.substring(contractId.lastIndexOf("::") + 2)
                             : contractId;
-                    String alt = !contractId.contains("::") && contractId.matches("^[0-9a-fA-F]+$")
-                            ? "1::" + contractId
-                            : null;
-                    if (alt != null) {
-                        logger.info("[findLoanRequestById] trying alt id={}", alt);
-                        return pqs.contractByContractId(LoanRequest.class, alt)
-                                .thenCompose(opt2 -> {
-                                    if (opt2.isPresent()) {
-                                        logger.info("[findLoanRequestById] FOUND by 1::suffix");
-                                        return CompletableFuture.completedFuture(opt2);
-                                    }
-                                    logger.info("[findLoanRequestById] 1::suffix missed, trying suffix lookup suffix={}", suffix);
-                                    return tryFindBySuffix(suffix);
-                                })
-                                .exceptionally(ex -> handlePqsTemplateNotFoundOptional(ex, "LoanRequest"));
-                    }
-                    if (suffix.matches("^[0-9a-fA-F]+$")) {
-                        logger.info("[findLoanRequestById] trying suffix lookup suffix={}", suffix);
-                        return tryFindBySuffix(suffix);
-                    }
-                    logger.info("[findLoanRequestById] no fallback applied, returning empty");
-                    return CompletableFuture.completedFuture(Optional.empty());
+                    logger.info("[findLoanRequestById] exact match missed, trying suffix lookup suffix={}", suffix);
+                    return tryFindBySuffix(suffix);
                 })
                 .exceptionally(ex -> handlePqsTemplateNotFoundOptional(ex, "LoanRequest"));
     }
 
     private CompletableFuture<Optional<Contract<LoanRequest>>> tryFindBySuffix(String suffix) {
-        return pqs.contractByContractIdSuffix(LoanRequest.class, suffix)
+        return suffixIndex.find(LoanRequest.class, suffix)
                 .thenCompose(opt -> {
                     if (opt.isPresent()) {
                         logger.info("[findLoanRequestById] FOUND by suffix lookup (suffix length={})", suffix.length());
@@ -291,7 +328,7 @@ public class DamlRepository {
                     if (suffix.length() > 64 && suffix.matches("^[0-9a-fA-F]+$")) {
                         String shortSuffix = suffix.substring(suffix.length() - 64);
                         logger.info("[findLoanRequestById] full suffix missed, trying last-64 suffix length={}", shortSuffix.length());
-                        return pqs.contractByContractIdSuffix(LoanRequest.class, shortSuffix)
+                        return suffixIndex.find(LoanRequest.class, shortSuffix)
                                 .thenApply(opt2 -> {
                                     if (opt2.isPresent()) logger.info("[findLoanRequestById] FOUND by last-64 suffix");
                                     return opt2;
@@ -304,18 +341,30 @@ public class DamlRepository {
 
     /** All active loan requests observed by the platform (for disclosure to lenders). */
     public CompletableFuture<List<Contract<LoanRequest>>> findActiveLoanRequestsByPlatform(String platformParty) {
-        // Party in PQS payload may be string or object {"party": "..."}; support both for robustness
-        return pqs.activeWhere(LoanRequest.class,
-                "(payload->>'platformOperator' = ? OR payload->'platformOperator'->>'party' = ?)",
-                platformParty, platformParty)
+        return pqs.activeWhere(LoanRequest.class, PayloadFilter.party("platformOperator", platformParty))
                 .exceptionally(ex -> handlePqsTemplateNotFound(ex, "LoanRequest"));
     }
 
+    public CompletableFuture<Page<Contract<LoanRequest>>> findActiveLoanRequestsByPlatform(String platformParty, PageRequest page) {
+        return pqs.activePage(LoanRequest.class, PayloadFilter.party("platformOperator", platformParty), page)
+                .exceptionally(ex -> handlePqsTemplateNotFoundPage(ex, "LoanRequest"));
+    }
+
     /** Loan requests disclosed to this lender (marketplace view). */
     public CompletableFuture<List<Contract<LoanRequestForLender>>> findActiveLoanRequestForLenderByLender(String lenderParty) {
-        return pqs.activeWhere(LoanRequestForLender.class,
-                "(payload->>'lender' = ? OR payload->'lender'->>'party' = ?)",
-                lenderParty, lenderParty)
+        return pqs.activeWhere(LoanRequestForLender.class, PayloadFilter.party("lender", lenderParty))
+                .exceptionally(ex -> handlePqsTemplateNotFound(ex, "LoanRequestForLender"));
+    }
+
+    public CompletableFuture<Page<Contract<LoanRequestForLender>>> findActiveLoanRequestForLenderByLender(
+            String lenderParty, PageRequest page) {
+        return pqs.activePage(LoanRequestForLender.class, PayloadFilter.party("lender", lenderParty), page)
+                .exceptionally(ex -> handlePqsTemplateNotFoundPage(ex, "LoanRequestForLender"));
+    }
+
+    /** All active LoanRequestForLender contracts; used to find which (request, lender) pairs are already disclosed. */
+    public CompletableFuture<List<Contract<LoanRequestForLender>>> findAllActiveLoanRequestForLender() {
+        return pqs.active(LoanRequestForLender.class)
                 .exceptionally(ex -> handlePqsTemplateNotFound(ex, "LoanRequestForLender"));
     }
 
@@ -325,12 +374,16 @@ public class DamlRepository {
      * archives the original LoanRequest and replaces it with a LoanRequestForLender.
      */
     public CompletableFuture<List<Contract<LoanRequestForLender>>> findActiveLoanRequestForLenderByBorrower(String borrowerParty) {
-        return pqs.activeWhere(LoanRequestForLender.class,
-                "(payload->>'borrower' = ? OR payload->'borrower'->>'party' = ?)",
-                borrowerParty, borrowerParty)
+        return pqs.activeWhere(LoanRequestForLender.class, PayloadFilter.party("borrower", borrowerParty))
                 .exceptionally(ex -> handlePqsTemplateNotFound(ex, "LoanRequestForLender"));
     }
 
+    public CompletableFuture<Page<Contract<LoanRequestForLender>>> findActiveLoanRequestForLenderByBorrower(
+            String borrowerParty, PageRequest page) {
+        return pqs.activePage(LoanRequestForLender.class, PayloadFilter.party("borrower", borrowerParty), page)
+                .exceptionally(ex -> handlePqsTemplateNotFoundPage(ex, "LoanRequestForLender"));
+    }
+
     /**
      * Find LoanRequestForLender by contract ID (what the lender UI sends).
      * The lender sees LoanRequestForLender contracts, not LoanRequest directly.
@@ -347,7 +400,7 @@ public class DamlRepository {
                     }
                     String suffix = contractId.contains("::") ? contractId.substring(contractId.lastIndexOf("::") + 2) : contractId;
                     if (suffix.matches("^[0-9a-fA-F]+$")) {
-                        return pqs.contractByContractIdSuffix(LoanRequestForLender.class, suffix)
+                        return suffixIndex.find(LoanRequestForLender.class, suffix)
                                 .thenApply(opt2 -> {
                                     if (opt2.isPresent()) logger.info("[findLoanRequestForLenderById] FOUND by suffix");
                                     return opt2;
@@ -359,12 +412,15 @@ public class DamlRepository {
     }
 
     public CompletableFuture<List<Contract<LoanOffer>>> findActiveLoanOffersByLenderOrBorrower(String party) {
-        return pqs.activeWhere(LoanOffer.class,
-                "(payload->>'lender' = ? OR payload->'lender'->>'party' = ? OR payload->>'borrower' = ? OR payload->'borrower'->>'party' = ?)",
-                party, party, party, party)
+        return pqs.activeWhere(LoanOffer.class, PayloadFilter.anyParty(party, "lender", "borrower"))
                 .exceptionally(ex -> handlePqsTemplateNotFound(ex, "LoanOffer"));
     }
 
+    public CompletableFuture<Page<Contract<LoanOffer>>> findActiveLoanOffersByLenderOrBorrower(String party, PageRequest page) {
+        return pqs.activePage(LoanOffer.class, PayloadFilter.anyParty(party, "lender", "borrower"), page)
+                .exceptionally(ex -> handlePqsTemplateNotFoundPage(ex, "LoanOffer"));
+    }
+
     /**
      * Find LoanOffer by contract ID. Tries exact match, then suffix match (hex suffix after "::" or full id if already hex).
      */
@@ -372,7 +428,7 @@ public class DamlRepository {
         if (contractId == null || contractId.isEmpty()) {
             return CompletableFuture.completedFuture(Optional.empty());
         }
-        return pqs.contractByContractId(LoanOffer.class, contractId)
+        return contractCache.contractByContractId(LoanOffer.class, contractId)
                 .thenCompose(opt -> {
                     if (opt.isPresent()) {
                         logger.info("[findLoanOfferById] FOUND by exact id");
@@ -380,7 +436,7 @@ public class DamlRepository {
                     }
                     String suffix = contractId.contains("::") ? contractId.substring(contractId.lastIndexOf("::") + 2) : contractId;
                     if (suffix.matches("^[0-9a-fA-F]+$")) {
-                        return pqs.contractByContractIdSuffix(LoanOffer.class, suffix)
+                        return suffixIndex.find(LoanOffer.class, suffix)
                                 .thenApply(opt2 -> {
                                     if (opt2.isPresent()) logger.info("[findLoanOfferById] FOUND by suffix");
                                     return opt2;
@@ -391,11 +447,9 @@ public class DamlRepository {
                 .exceptionally(ex -> handlePqsTemplateNotFoundOptional(ex, "LoanOffer"));
     }
 
-    public CompletableFuture<List<Contract<Loan>>> findActiveLoansByParty(String party) {
-        return pqs.activeWhere(Loan.class,
-                "(payload->>'lender' = ? OR payload->'lender'->>'party' = ? OR payload->>'borrower' = ? OR payload->'borrower'->>'party' = ?)",
-                party, party, party, party)
-                .exceptionally(ex -> handlePqsTemplateNotFound(ex, "Loan"));
+    public CompletableFuture<Page<Contract<Loan>>> findActiveLoansByParty(String party, PageRequest page) {
+        return pqs.activePage(Loan.class, PayloadFilter.anyParty(party, "lender", "borrower"), page)
+                .exceptionally(ex -> handlePqsTemplateNotFoundPage(ex, "Loan"));
     }
 
     /** All active Loan contracts visible to the PQS node (used for aggregate platform stats). */
@@ -404,11 +458,42 @@ public class DamlRepository {
                 .exceptionally(ex -> handlePqsTemplateNotFound(ex, "Loan"));
     }
 
+    /**
+     * Streams the statistics-relevant fields of all active Loan contracts, extracted in SQL without decoding
+     * payloads; completes with the number of loans seen.
+     */
+    public CompletableFuture<Long> forEachActiveLoanStats(Consumer<LoanStatsRow> consumer) {
+        String select = """
+                contract_id,
+                coalesce(payload->>'status', 'Active') = 'Active'          AS active,
+                (payload->>'principal')::numeric                          AS principal,
+                (payload->>'interestRate')::numeric                       AS interest_rate,
+                """ + PayloadFilter.partyExpression("lender") + " AS lender, "
+                + PayloadFilter.partyExpression("borrower") + " AS borrower";
+        return pqs.forEachActiveProjected(Loan.class, select, (rs, rowNum) -> new LoanStatsRow(
+                        rs.getString("contract_id"),
+                        rs.getBoolean("active"),
+                        rs.getBigDecimal("principal"),
+                        rs.getBigDecimal("interest_rate"),
+                        rs.getString("lender"),
+                        rs.getString("borrower")),
+                consumer)
+                .exceptionally(ex -> handlePqsTemplateNotFoundCount(ex, "Loan"));
+    }
+
     public CompletableFuture<Optional<Contract<Loan>>> findLoanById(String contractId) {
-        return pqs.contractByContractId(Loan.class, contractId)
+        return contractCache.contractByContractId(Loan.class, contractId)
                 .exceptionally(ex -> handlePqsTemplateNotFoundOptional(ex, "Loan"));
     }
 
+    /**
+     * Drop a cached contract after a consuming choice on it succeeded, so lookups served from the cache do not
+     * return it until PQS reports the archive.
+     */
+    public void evictConsumed(Class<? extends Template> clazz, String contractId) {
+        contractCache.invalidate(clazz, contractId);
+    }
+
     /**
      * Fetch FundingIntent by contract id.
      */
@@ -437,7 +522,7 @@ public class DamlRepository {
      * Find active FundingIntent contracts for a lender (observer).
      */
     public CompletableFuture<List<Contract<FundingIntent>>> findFundingIntentsByLender(String lenderParty) {
-        return pqs.activeWhere(FundingIntent.class, "lender", lenderParty)
+        return pqs.activeWhere(FundingIntent.class, PayloadFilter.party("lender", lenderParty))
                 .exceptionally(ex -> handlePqsTemplateNotFound(ex, "FundingIntent"));
     }
 
@@ -445,7 +530,7 @@ public class DamlRepository {
      * Find active FundingIntent contracts for a borrower (signatory).
      */
     public CompletableFuture<List<Contract<FundingIntent>>> findFundingIntentsByBorrower(String borrowerParty) {
-        return pqs.activeWhere(FundingIntent.class, "borrower", borrowerParty)
+        return pqs.activeWhere(FundingIntent.class, PayloadFilter.party("borrower", borrowerParty))
                 .exceptionally(ex -> handlePqsTemplateNotFound(ex, "FundingIntent"));
     }
 
@@ -514,7 +599,7 @@ public class DamlRepository {
      */
     public CompletableFuture<List<Contract<LoanRepaymentRequest>>> findLoanRepaymentRequestsByBorrower(
             String borrowerParty) {
-        return pqs.activeWhere(LoanRepaymentRequest.class, "borrower", borrowerParty)
+        return pqs.activeWhere(LoanRepaymentRequest.class, PayloadFilter.party("borrower", borrowerParty))
                 .exceptionally(ex -> handlePqsTemplateNotFound(ex, "LoanRepaymentRequest"));
     }
 
@@ -525,10 +610,24 @@ public class DamlRepository {
                 .exceptionally(ex -> handlePqsTemplateNotFound(ex, "LenderBid"));
     }
 
+    public CompletableFuture<Page<Contract<LenderBid>>> findActiveLenderBids(PageRequest page) {
+        return pqs.activePage(LenderBid.class, null, page)
+                .exceptionally(ex -> handlePqsTemplateNotFoundPage(ex, "LenderBid"));
+    }
+
+    /** Streams the (minInterestRate, maxDuration, remainingAmount) of every active LenderBid without decoding payloads. */
+    public CompletableFuture<Long> forEachLenderBidLevel(Consumer<OrderLevelRow> consumer) {
+        String select = """
+                (payload->>'minInterestRate')::numeric   AS interest_rate,
+                (payload->>'maxDuration')::bigint        AS duration,
+                (payload->>'remainingAmount')::numeric   AS amount
+                """;
+        return pqs.forEachActiveProjected(LenderBid.class, select, DamlRepository::orderLevelRow, consumer)
+                .exceptionally(ex -> handlePqsTemplateNotFoundCount(ex, "LenderBid"));
+    }
+
     public CompletableFuture<List<Contract<LenderBid>>> findActiveLenderBidsByLender(String lenderParty) {
-        return pqs.activeWhere(LenderBid.class,
-                "(payload->>'lender' = ? OR payload->'lender'->>'party' = ?)",
-                lenderParty, lenderParty)
+        return pqs.activeWhere(LenderBid.class, PayloadFilter.party("lender", lenderParty))
                 .exceptionally(ex -> handlePqsTemplateNotFound(ex, "LenderBid"));
     }
 
@@ -547,10 +646,72 @@ public class DamlRepository {
                 .exceptionally(ex -> handlePqsTemplateNotFound(ex, "BorrowerAsk"));
     }
 
+    public CompletableFuture<Page<Contract<BorrowerAsk>>> findActiveBorrowerAsks(PageRequest page) {
+        return pqs.activePage(BorrowerAsk.class, null, page)
+                .exceptionally(ex -> handlePqsTemplateNotFoundPage(ex, "BorrowerAsk"));
+    }
+
+    /** Streams the (maxInterestRate, duration, amount) of every active BorrowerAsk without decoding payloads. */
+    public CompletableFuture<Long> forEachBorrowerAskLevel(Consumer<OrderLevelRow> consumer) {
+        String select = """
+                (payload->>'maxInterestRate')::numeric   AS interest_rate,
+                (payload->>'duration')::bigint           AS duration,
+                (payload->>'amount')::numeric            AS amount
+                """;
+        return pqs.forEachActiveProjected(BorrowerAsk.class, select, DamlRepository::orderLevelRow, consumer)
+                .exceptionally(ex -> handlePqsTemplateNotFoundCount(ex, "BorrowerAsk"));
+    }
+
+    private static OrderLevelRow orderLevelRow(ResultSet rs, int rowNum) throws SQLException {
+        return new OrderLevelRow(rs.getBigDecimal("interest_rate"), rs.getLong("duration"), rs.getBigDecimal("amount"));
+    }
+
+    /**
+     * LenderBid remaining amounts summed per (minInterestRate, maxDuration) in PQS, ordered by ascending rate.
+     * Only tier rows leave the database; no payload is decoded.
+     */
+    public CompletableFuture<List<OrderBookTierRow>> aggregateLenderBidTiers() {
+        String sql = """
+                SELECT (payload->>'minInterestRate')::numeric        AS interest_rate,
+                       (payload->>'maxDuration')::bigint             AS duration,
+                       sum((payload->>'remainingAmount')::numeric)   AS total_amount,
+                       count(*)                                      AS order_count
+                FROM active(?)
+                GROUP BY 1, 2
+                ORDER BY 1 ASC, 2 ASC
+                """;
+        return queryTierRows(sql, LenderBid.class)
+                .exceptionally(ex -> handlePqsTemplateNotFoundRows(ex, "LenderBid"));
+    }
+
+    /** BorrowerAsk amounts summed per (maxInterestRate, duration) in PQS, ordered by descending rate. */
+    public CompletableFuture<List<OrderBookTierRow>> aggregateBorrowerAskTiers() {
+        String sql = """
+                SELECT (payload->>'maxInterestRate')::numeric        AS interest_rate,
+                       (payload->>'duration')::bigint                AS duration,
+                       sum((payload->>'amount')::numeric)            AS total_amount,
+                       count(*)                                      AS order_count
+                FROM active(?)
+                GROUP BY 1, 2
+                ORDER BY 1 DESC, 2 ASC
+                """;
+        return queryTierRows(sql, BorrowerAsk.class)
+                .exceptionally(ex -> handlePqsTemplateNotFoundRows(ex, "BorrowerAsk"));
+    }
+
+    private <T extends Template> CompletableFuture<List<OrderBookTierRow>> queryTierRows(String sql, Class<T> clazz) {
+        List<OrderBookTierRow> rows = new ArrayList<>();
+        return pqs.query(sql, rs -> rows.add(new OrderBookTierRow(
+                        rs.getBigDecimal("interest_rate"),
+                        rs.getLong("duration"),
+                        rs.getBigDecimal("total_amount"),
+                        rs.getInt("order_count"))),
+                qualifiedName(clazz)
+        ).thenApply(v -> rows);
+    }
+
     public CompletableFuture<List<Contract<BorrowerAsk>>> findActiveBorrowerAsksByBorrower(String borrowerParty) {
-        return pqs.activeWhere(BorrowerAsk.class,
-                "(payload->>'borrower' = ? OR payload->'borrower'->>'party' = ?)",
-                borrowerParty, borrowerParty)
+        return pqs.activeWhere(BorrowerAsk.class, PayloadFilter.party("borrower", borrowerParty))
                 .exceptionally(ex -> handlePqsTemplateNotFound(ex, "BorrowerAsk"));
     }
 
@@ -560,17 +721,16 @@ public class DamlRepository {
     }
 
     public CompletableFuture<Optional<Contract<MatchingEngine>>> findMatchingEngine(String platformParty) {
-        return pqs.activeWhere(MatchingEngine.class,
-                "(payload->>'platformOperator' = ? OR payload->'platformOperator'->>'party' = ?)",
-                platformParty, platformParty)
-                .thenApply(list -> list.isEmpty() ? Optional.<Contract<MatchingEngine>>empty() : Optional.of(list.get(0)))
+        // Looked up on every matching cycle; the engine is only ever archived if the platform replaces it.
+        return contractCache.lookup(MatchingEngine.class, "platformOperator:" + platformParty, () ->
+                        pqs.activeWhere(MatchingEngine.class,
+                                PayloadFilter.party("platformOperator", platformParty))
+                                .thenApply(list -> list.isEmpty() ? Optional.<Contract<MatchingEngine>>empty() : Optional.of(list.get(0))))
                 .exceptionally(ex -> DamlRepository.<MatchingEngine>handlePqsTemplateNotFoundOptional(ex, "MatchingEngine"));
     }
 
     public CompletableFuture<List<Contract<MatchedLoanProposal>>> findMatchedLoanProposals(String party) {
-        return pqs.activeWhere(MatchedLoanProposal.class,
-                "(payload->>'lender' = ? OR payload->'lender'->>'party' = ? OR payload->>'borrower' = ? OR payload->'borrower'->>'party' = ?)",
-                party, party, party, party)
+        return pqs.activeWhere(MatchedLoanProposal.class, PayloadFilter.anyParty(party, "lender", "borrower"))
                 .exceptionally(ex -> handlePqsTemplateNotFound(ex, "MatchedLoanProposal"));
     }
 
@@ -0,0 +1,159 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link TokenProvider} that caches the delegate's JWT until shortly before its {@code exp} claim.
+ *
+ * <p>A refresh is scheduled {@code refreshMargin} before expiry and runs on a background thread, so callers
+ * normally only read the cached token. At most one refresh runs at a time; callers only wait for it when there
+ * is no unexpired token at all (at startup, or after refreshes kept failing). Tokens without a readable
+ * {@code exp} are kept for {@code fallbackLifetime}.
+ */
+public final class CachingTokenProvider implements TokenProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingTokenProvider.class);
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+    private static final Duration MIN_REFRESH_DELAY = Duration.ofSeconds(1);
+
+    private record CachedToken(String value, Instant expiresAt) {
+    }
+
+    private final TokenProvider delegate;
+    private final Duration refreshMargin;
+    private final Duration fallbackLifetime;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+    private final Timer refreshSuccess;
+    private final Timer refreshFailure;
+    private final AtomicReference<CompletableFuture<CachedToken>> inFlight = new AtomicReference<>();
+    private volatile CachedToken cached;
+    private ScheduledFuture<?> nextRefresh;
+
+    public CachingTokenProvider(TokenProvider delegate, Duration refreshMargin, Duration fallbackLifetime,
+                                MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.refreshMargin = refreshMargin;
+        this.fallbackLifetime = fallbackLifetime;
+        this.clock = Clock.systemUTC();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+        this.refreshSuccess = Timer.builder("ledger.token.refresh")
+                .description("Access token fetches from the underlying token provider")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.refreshFailure = Timer.builder("ledger.token.refresh")
+                .description("Access token fetches from the underlying token provider")
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+        Gauge.builder("ledger.token.ttl.seconds", this, p -> p.secondsToExpiry())
+                .description("Seconds until the cached access token expires")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getToken() {
+        CachedToken token = cached;
+        if (token != null && clock.instant().isBefore(token.expiresAt())) {
+            return token.value();
+        }
+        return refresh().join().value();
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /** Start a refresh unless one is already running, and return the running one. */
+    private CompletableFuture<CachedToken> refresh() {
+        CompletableFuture<CachedToken> mine = new CompletableFuture<>();
+        CompletableFuture<CachedToken> running = inFlight.compareAndExchange(null, mine);
+        if (running != null) {
+            return running;
+        }
+        scheduler.execute(() -> {
+            long start = System.nanoTime();
+            CachedToken token = null;
+            RuntimeException failure = null;
+            try {
+                String value = delegate.getToken();
+                token = new CachedToken(value, expiryOf(value));
+                refreshSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                cached = token;
+            } catch (RuntimeException e) {
+                refreshFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                logger.warn("Access token refresh failed: {}", e.getMessage());
+                failure = e;
+            }
+            // Cleared before the next refresh is scheduled so that one can never be mistaken for this one.
+            inFlight.set(null);
+            if (token != null) {
+                // Short-lived tokens are refreshed half-way through instead of in a tight loop.
+                Duration lifetime = Duration.between(clock.instant(), token.expiresAt());
+                Duration delay = lifetime.minus(refreshMargin);
+                scheduleRefresh(delay.compareTo(lifetime.dividedBy(2)) < 0 ? lifetime.dividedBy(2) : delay);
+                mine.complete(token);
+            } else {
+                scheduleRefresh(RETRY_DELAY);
+                mine.completeExceptionally(failure);
+            }
+        });
+        return mine;
+    }
+
+    /** Replace the pending background refresh; only called on the scheduler thread. */
+    private void scheduleRefresh(Duration delay) {
+        if (nextRefresh != null) {
+            nextRefresh.cancel(false);
+        }
+        long millis = Math.max(MIN_REFRESH_DELAY.toMillis(), delay.toMillis());
+        nextRefresh = scheduler.schedule(this::refresh, millis, TimeUnit.MILLISECONDS);
+    }
+
+    private Instant expiryOf(String jwt) {
+        Instant fallback = clock.instant().plus(fallbackLifetime);
+        String[] parts = jwt.split("\\.");
+        if (parts.length < 2) {
+            return fallback;
+        }
+        try {
+            JsonNode claims = JSON.readTree(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8));
+            JsonNode exp = claims.get("exp");
+            return exp != null && exp.canConvertToLong() ? Instant.ofEpochSecond(exp.asLong()) : fallback;
+        } catch (Exception e) {
+            logger.debug("Could not read exp claim from access token: {}", e.getMessage());
+            return fallback;
+        }
+    }
+
+    private double secondsToExpiry() {
+        CachedToken token = cached;
+        return token == null ? 0 : Math.max(0, Duration.between(clock.instant(), token.expiresAt()).toSeconds());
+    }
+}
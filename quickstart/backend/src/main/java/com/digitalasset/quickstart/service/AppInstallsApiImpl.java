@@ -4,10 +4,13 @@
 package com.digitalasset.quickstart.service;
 
 import static com.digitalasset.quickstart.service.ServiceUtils.ensurePresent;
+import static com.digitalasset.quickstart.service.ServiceUtils.pageRequest;
+import static com.digitalasset.quickstart.service.ServiceUtils.pageResponse;
 import static com.digitalasset.quickstart.service.ServiceUtils.traceServiceCallAsync;
 import static com.digitalasset.quickstart.utility.TracingUtils.tracingCtx;
 
 import com.digitalasset.quickstart.api.AppInstallsApi;
+import com.digitalasset.quickstart.config.PaginationConfig;
 import com.digitalasset.quickstart.ledger.LedgerApi;
 import com.digitalasset.quickstart.repository.DamlRepository;
 import com.digitalasset.quickstart.security.AuthUtils;
@@ -17,7 +20,6 @@ import io.opentelemetry.instrumentation.annotations.WithSpan;
 import java.net.URI;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
 
 import org.openapitools.model.AppInstallCancel;
 import org.openapitools.model.AppInstallCreateLicenseRequest;
@@ -42,41 +44,41 @@ public class AppInstallsApiImpl implements AppInstallsApi {
     private final LedgerApi ledger;
     private final DamlRepository damlRepository;
     private final AuthUtils auth;
+    private final PaginationConfig paginationConfig;
 
     private static final Logger logger = LoggerFactory.getLogger(AppInstallsApiImpl.class);
 
     @Autowired
-    public AppInstallsApiImpl(LedgerApi ledger, DamlRepository damlRepository, AuthUtils auth) {
+    public AppInstallsApiImpl(LedgerApi ledger, DamlRepository damlRepository, AuthUtils auth,
+                              PaginationConfig paginationConfig) {
         this.ledger = ledger;
         this.damlRepository = damlRepository;
         this.auth = auth;
+        this.paginationConfig = paginationConfig;
     }
 
     @Override
     @WithSpan
-    public CompletableFuture<ResponseEntity<List<org.openapitools.model.AppInstall>>> listAppInstalls() {
+    public CompletableFuture<ResponseEntity<List<org.openapitools.model.AppInstall>>> listAppInstalls(
+            Integer limit, String cursor) {
         var ctx = tracingCtx(logger, "listAppInstalls");
+        var page = pageRequest(paginationConfig, limit, cursor);
         return auth.asAuthenticatedParty(party -> traceServiceCallAsync(ctx, () ->
-                damlRepository.findActiveAppInstalls().thenApplyAsync(contracts -> {
-                    List<org.openapitools.model.AppInstall> result = contracts.stream().filter(contract -> {
-                        String provider = contract.payload.getProvider.getParty;
-                        String user = contract.payload.getUser.getParty;
-                        return party.equals(provider) || party.equals(user);
-                    }).map(contract -> {
-                        org.openapitools.model.AppInstall model = new org.openapitools.model.AppInstall();
-                        model.setContractId(contract.contractId.getContractId);
-                        model.setProvider(contract.payload.getProvider.getParty);
-                        model.setUser(contract.payload.getUser.getParty);
+                // Only installs where the party is provider or user are read from PQS
+                damlRepository.findActiveAppInstalls(party, page).thenApplyAsync(contracts ->
+                        pageResponse(contracts.map(contract -> {
+                            org.openapitools.model.AppInstall model = new org.openapitools.model.AppInstall();
+                            model.setContractId(contract.contractId.getContractId);
+                            model.setProvider(contract.payload.getProvider.getParty);
+                            model.setUser(contract.payload.getUser.getParty);
 
-                        org.openapitools.model.Metadata metaModel = new org.openapitools.model.Metadata();
-                        metaModel.setData(contract.payload.getMeta.getValues);
-                        model.setMeta(metaModel);
+                            org.openapitools.model.Metadata metaModel = new org.openapitools.model.Metadata();
+                            metaModel.setData(contract.payload.getMeta.getValues);
+                            model.setMeta(metaModel);
 
-                        model.setNumLicensesCreated(contract.payload.getNumLicensesCreated.intValue());
-                        return model;
-                    }).collect(Collectors.toList());
-                    return ResponseEntity.ok(result);
-                })
+                            model.setNumLicensesCreated(contract.payload.getNumLicensesCreated.intValue());
+                            return model;
+                        })))
         ));
     }
 
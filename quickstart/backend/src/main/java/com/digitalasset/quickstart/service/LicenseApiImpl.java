@@ -7,6 +7,8 @@
 package com.digitalasset.quickstart.service;
 
 import static com.digitalasset.quickstart.service.ServiceUtils.ensurePresent;
+import static com.digitalasset.quickstart.service.ServiceUtils.pageRequest;
+import static com.digitalasset.quickstart.service.ServiceUtils.pageResponse;
 import static com.digitalasset.quickstart.service.ServiceUtils.traceServiceCallAsync;
 import static com.digitalasset.quickstart.utility.TracingUtils.tracingCtx;
 import static com.digitalasset.quickstart.utility.Utils.*;
@@ -14,8 +16,10 @@ import static com.digitalasset.quickstart.utility.Utils.*;
 import com.daml.ledger.api.v2.CommandsOuterClass;
 import com.daml.ledger.api.v2.ValueOuterClass;
 import com.digitalasset.quickstart.api.LicensesApi;
+import com.digitalasset.quickstart.config.PaginationConfig;
 import com.digitalasset.quickstart.ledger.LedgerApi;
 import com.digitalasset.quickstart.ledger.TokenStandardProxy;
+import com.digitalasset.quickstart.pqs.Page;
 import com.digitalasset.quickstart.repository.DamlRepository;
 import com.digitalasset.quickstart.security.AuthUtils;
 import com.digitalasset.quickstart.tokenstandard.openapi.allocation.model.DisclosedContract;
@@ -60,32 +64,42 @@ public class LicenseApiImpl implements LicensesApi {
     private final DamlRepository damlRepository;
     private final TokenStandardProxy tokenStandardProxy;
     private final AuthUtils auth;
+    private final PaginationConfig paginationConfig;
 
     public LicenseApiImpl(
             LedgerApi ledger,
             DamlRepository damlRepository,
             TokenStandardProxy tokenStandardProxy,
-            AuthUtils authUtils
+            AuthUtils authUtils,
+            PaginationConfig paginationConfig
     ) {
         this.ledger = ledger;
         this.damlRepository = damlRepository;
         this.tokenStandardProxy = tokenStandardProxy;
         this.auth = authUtils;
+        this.paginationConfig = paginationConfig;
     }
 
     /**
-     * Lists active License contracts visible to the authenticated party.
+     * Lists one page of active License contracts visible to the authenticated party, in contract id order so
+     * that consecutive pages neither overlap nor skip licenses. Without limit and cursor, all licenses are
+     * returned sorted by user and license number.
      */
     @Override
     @WithSpan
-    public CompletableFuture<ResponseEntity<List<License>>> listLicenses() {
+    public CompletableFuture<ResponseEntity<List<License>>> listLicenses(Integer limit, String cursor) {
         var ctx = tracingCtx(logger, "listLicenses");
+        var page = pageRequest(paginationConfig, limit, cursor);
         return auth.asAuthenticatedParty(party -> traceServiceCallAsync(ctx, () ->
-                damlRepository.findActiveLicenses(party).thenApply(res -> res.stream()
-                        .map(LicenseApiImpl::toLicenseApi)
-                        .sorted(Comparator.comparing(License::getUser).thenComparingInt(License::getLicenseNum))
-                        .toList()
-                ).thenApply(ResponseEntity::ok)
+                damlRepository.findActiveLicenses(party, page).thenApply(res -> {
+                    var licenses = res.map(LicenseApiImpl::toLicenseApi);
+                    if (!page.isUnpaged()) {
+                        return pageResponse(licenses);
+                    }
+                    return pageResponse(new Page<>(licenses.items().stream()
+                            .sorted(Comparator.comparing(License::getUser).thenComparingInt(License::getLicenseNum))
+                            .toList(), null));
+                })
         ));
     }
 
@@ -4,15 +4,17 @@
 package com.digitalasset.quickstart.service;
 
 import static com.digitalasset.quickstart.service.ServiceUtils.ensurePresent;
+import static com.digitalasset.quickstart.service.ServiceUtils.pageRequest;
+import static com.digitalasset.quickstart.service.ServiceUtils.pageResponse;
 import static com.digitalasset.quickstart.service.ServiceUtils.traceServiceCallAsync;
 import static com.digitalasset.quickstart.utility.TracingUtils.tracingCtx;
 import static com.digitalasset.quickstart.utility.Utils.toOffsetDateTime;
 
 import com.digitalasset.quickstart.api.LoansApi;
+import com.digitalasset.quickstart.config.PaginationConfig;
 import com.digitalasset.quickstart.ledger.LedgerApi;
 import com.digitalasset.quickstart.ledger.TokenStandardProxy;
 import com.digitalasset.quickstart.repository.DamlRepository;
-import com.digitalasset.quickstart.repository.TenantPropertiesRepository;
 import com.digitalasset.quickstart.security.AuthUtils;
 import com.digitalasset.quickstart.tokenstandard.openapi.allocation.model.DisclosedContract;
 import com.digitalasset.transcode.java.ContractId;
@@ -76,61 +78,23 @@ public class LoanApiImpl implements LoansApi {
     private final LedgerApi ledger;
     private final DamlRepository damlRepository;
     private final AuthUtils auth;
-    private final TenantPropertiesRepository tenantPropertiesRepository;
     private final TokenStandardProxy tokenStandardProxy;
+    private final PlatformStatsAggregator platformStats;
+    private final LoanDisclosureService loanDisclosure;
+    private final PaginationConfig paginationConfig;
 
     public LoanApiImpl(LedgerApi ledger, DamlRepository damlRepository, AuthUtils auth,
                        TokenStandardProxy tokenStandardProxy,
-                       TenantPropertiesRepository tenantPropertiesRepository) {
+                       PlatformStatsAggregator platformStats,
+                       LoanDisclosureService loanDisclosure,
+                       PaginationConfig paginationConfig) {
         this.ledger = ledger;
         this.damlRepository = damlRepository;
         this.auth = auth;
         this.tokenStandardProxy = tokenStandardProxy;
-        this.tenantPropertiesRepository = tenantPropertiesRepository;
-    }
-
-    /**
-     * Proactively disclose all undisclosed LoanRequests to every known lender party.
-     * Runs asynchronously after a short delay to allow PQS indexing.
-     */
-    private void discloseToAllLenders(String borrowerParty, String appProviderPartyId) {
-        CompletableFuture.delayedExecutor(2, java.util.concurrent.TimeUnit.SECONDS)
-            .execute(() -> {
-                try {
-                    damlRepository.findActiveLoanRequestsByPlatform(appProviderPartyId)
-                        .thenAccept(requests -> {
-                            List<String> lenderParties = tenantPropertiesRepository.getAllTenants().values().stream()
-                                .map(TenantPropertiesRepository.TenantProperties::getPartyId)
-                                .filter(pid -> pid != null && !pid.isEmpty())
-                                .filter(pid -> !pid.equals(appProviderPartyId))
-                                .filter(pid -> !pid.equals(borrowerParty))
-                                .toList();
-
-                            for (var req : requests) {
-                                for (String lenderParty : lenderParties) {
-                                    var choice = new LoanRequest.LoanRequest_DiscloseToLender(new Party(lenderParty));
-                                    ledger.exerciseAndGetResult(
-                                        req.contractId, choice,
-                                        UUID.randomUUID().toString(),
-                                        appProviderPartyId)
-                                    .exceptionally(ex -> {
-                                        logger.debug("[discloseToAllLenders] skipped lender={} request={}: {}",
-                                            lenderParty, req.contractId.getContractId, ex.getMessage());
-                                        return null;
-                                    });
-                                }
-                            }
-                            logger.info("[discloseToAllLenders] disclosed {} request(s) to {} lender(s)",
-                                requests.size(), lenderParties.size());
-                        })
-                        .exceptionally(ex -> {
-                            logger.warn("[discloseToAllLenders] failed to query platform requests", ex);
-                            return null;
-                        });
-                } catch (Exception ex) {
-                    logger.warn("[discloseToAllLenders] unexpected error", ex);
-                }
-            });
+        this.platformStats = platformStats;
+        this.loanDisclosure = loanDisclosure;
+        this.paginationConfig = paginationConfig;
     }
 
     @Override
@@ -166,7 +130,7 @@ public class LoanApiImpl implements LoansApi {
                     return ledger.create(template, cmdId, party)
                             .thenCompose(v -> {
                                 logger.info("[createLoanRequest] ledger write done party={} amount={} rate={} days={}", party, amount, rate, daysInt);
-                                discloseToAllLenders(party, auth.getAppProviderPartyId());
+                                loanDisclosure.discloseMissing();
                                 // Wait 1s for PQS to index the new contract, then resolve the real contractId
                                 CompletableFuture<Void> delay = new CompletableFuture<>();
                                 CompletableFuture.delayedExecutor(1, java.util.concurrent.TimeUnit.SECONDS)
@@ -408,6 +372,7 @@ public class LoanApiImpl implements LoansApi {
                                                     commandId != null ? commandId : UUID.randomUUID().toString(),
                                                     party)
                                             .thenApply(loanCid -> {
+                                                damlRepository.evictConsumed(LoanOffer.class, offer.contractId.getContractId);
                                                 // LoanOffer_Accept now returns ContractId<Loan> directly
                                                 // (creditProfileId was removed from the return tuple).
                                                 LoanFundResult result = new LoanFundResult();
@@ -472,6 +437,7 @@ public class LoanApiImpl implements LoansApi {
                                 commandId != null ? commandId : UUID.randomUUID().toString(),
                                 party)
                         .thenApply(intentCid -> {
+                            damlRepository.evictConsumed(LoanOffer.class, offer.contractId.getContractId);
                             FundingIntentResult result = new FundingIntentResult();
                             result.setFundingIntentId(intentCid.getContractId);
                             return ResponseEntity.status(HttpStatus.CREATED).body(result);
@@ -713,6 +679,7 @@ public class LoanApiImpl implements LoansApi {
                                             UUID.randomUUID().toString(),
                                             party)
                                     .thenApply(tuple -> {
+                                        damlRepository.evictConsumed(Loan.class, loanCid.getContractId);
                                         LoanRepaymentResult result = new LoanRepaymentResult();
                                         result.setCreditProfileId(tuple.get_1.getContractId);
                                         return ResponseEntity.ok(result);
@@ -738,6 +705,7 @@ public class LoanApiImpl implements LoansApi {
                                             commandId != null ? commandId : UUID.randomUUID().toString(),
                                             party)
                                             .thenApply(v -> {
+                                                damlRepository.evictConsumed(Loan.class, loan.contractId.getContractId);
                                                 logger.info("[repayLoan] completed loanContractId={}", contractId);
                                                 return ResponseEntity.<Void>ok().build();
                                             });
@@ -763,6 +731,7 @@ public class LoanApiImpl implements LoansApi {
                                             commandId != null ? commandId : UUID.randomUUID().toString(),
                                             party)
                                             .thenApply(v -> {
+                                                damlRepository.evictConsumed(Loan.class, loan.contractId.getContractId);
                                                 logger.info("[markLoanDefault] completed loanContractId={}", contractId);
                                                 return ResponseEntity.<Void>ok().build();
                                             });
@@ -773,6 +742,7 @@ public class LoanApiImpl implements LoansApi {
     /**
      * Aggregate platform statistics computed from all active Loan contracts visible to the PQS node.
      * Returns live on-chain data: TVL, loan count, average rate, unique parties.
+     * Served from {@link PlatformStatsAggregator}; Loans are only streamed from PQS before it has loaded.
      */
     @WithSpan
     @GetMapping("/platform-stats")
@@ -780,37 +750,19 @@ public class LoanApiImpl implements LoansApi {
         var ctx = tracingCtx(logger, "getPlatformStats");
         return auth.asAuthenticatedParty(party ->
                 traceServiceCallAsync(ctx, () ->
-                        damlRepository.findAllActiveLoans().thenApply(loans -> {
-                            var active = loans.stream()
-                                    .filter(c -> {
-                                        var s = c.payload.getStatus;
-                                        return s == null || s.toString().equals("Active");
-                                    })
-                                    .toList();
-                            double tvl = active.stream()
-                                    .mapToDouble(c -> c.payload.getPrincipal.doubleValue())
-                                    .sum();
-                            double avgRate = active.isEmpty() ? 0.0 : active.stream()
-                                    .mapToDouble(c -> c.payload.getInterestRate.doubleValue())
-                                    .average().orElse(0.0);
-                            long distinctLenders = active.stream()
-                                    .map(c -> c.payload.getLender.getParty)
-                                    .distinct().count();
-                            long distinctBorrowers = active.stream()
-                                    .map(c -> c.payload.getBorrower.getParty)
-                                    .distinct().count();
-
-                            org.openapitools.model.PlatformStats stats = new org.openapitools.model.PlatformStats();
-                            stats.setTotalValueLocked(BigDecimal.valueOf(tvl));
-                            stats.setTotalLoansOriginated(BigDecimal.valueOf(loans.size()));
-                            stats.setAverageInterestRate(BigDecimal.valueOf(avgRate));
-                            stats.setActiveLoans(active.size());
-                            stats.setTotalLenders((int) distinctLenders);
-                            stats.setTotalBorrowers((int) distinctBorrowers);
-                            logger.info("[getPlatformStats] tvl={} activeLoans={} lenders={} borrowers={}",
-                                    tvl, active.size(), distinctLenders, distinctBorrowers);
-                            return ResponseEntity.ok(stats);
-                        })
+                        platformStats.currentOrScan()
+                                .thenApply(s -> {
+                                    org.openapitools.model.PlatformStats stats = new org.openapitools.model.PlatformStats();
+                                    stats.setTotalValueLocked(s.totalValueLocked());
+                                    stats.setTotalLoansOriginated(BigDecimal.valueOf(s.totalLoans()));
+                                    stats.setAverageInterestRate(s.averageInterestRate());
+                                    stats.setActiveLoans(s.activeLoans());
+                                    stats.setTotalLenders(s.totalLenders());
+                                    stats.setTotalBorrowers(s.totalBorrowers());
+                                    logger.debug("[getPlatformStats] tvl={} activeLoans={} lenders={} borrowers={}",
+                                            s.totalValueLocked(), s.activeLoans(), s.totalLenders(), s.totalBorrowers());
+                                    return ResponseEntity.ok(stats);
+                                })
                 )
         );
     }
@@ -818,17 +770,18 @@ public class LoanApiImpl implements LoansApi {
     /** List loan offers visible to the authenticated party (lender or borrower). Not in generated LoansApi; mapped explicitly. */
     @WithSpan
     @GetMapping("/loan-offers")
-    public CompletableFuture<ResponseEntity<List<org.openapitools.model.LoanOffer>>> listLoanOffers() {
+    public CompletableFuture<ResponseEntity<List<org.openapitools.model.LoanOffer>>> listLoanOffers(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
         var ctx = tracingCtx(logger, "listLoanOffers");
+        var page = pageRequest(paginationConfig, limit, cursor);
         return auth.asAuthenticatedParty(party -> {
             logger.info("[listLoanOffers] party={}", party);
             return traceServiceCallAsync(ctx, () ->
-                    damlRepository.findActiveLoanOffersByLenderOrBorrower(party)
+                    damlRepository.findActiveLoanOffersByLenderOrBorrower(party, page)
                             .thenApply(contracts -> {
-                                logger.debug("[listLoanOffers] party={} returned {} offer(s)", party, contracts.size());
-                                return ResponseEntity.ok(contracts.stream()
-                                        .map(LoanApiImpl::toLoanOfferApi)
-                                        .toList());
+                                logger.debug("[listLoanOffers] party={} returned {} offer(s)", party, contracts.items().size());
+                                return pageResponse(contracts.map(LoanApiImpl::toLoanOfferApi));
                             }));
         });
     }
@@ -925,17 +878,16 @@ public class LoanApiImpl implements LoansApi {
     @Override
     @WithSpan
     @GetMapping("/loans")
-    public CompletableFuture<ResponseEntity<List<org.openapitools.model.Loan>>> listLoans() {
+    public CompletableFuture<ResponseEntity<List<org.openapitools.model.Loan>>> listLoans(Integer limit, String cursor) {
         var ctx = tracingCtx(logger, "listLoans");
+        var page = pageRequest(paginationConfig, limit, cursor);
         return auth.asAuthenticatedParty(party -> {
             logger.info("[listLoans] party={}", party);
             return traceServiceCallAsync(ctx, () ->
-                    damlRepository.findActiveLoansByParty(party)
+                    damlRepository.findActiveLoansByParty(party, page)
                             .thenApply(contracts -> {
-                                logger.debug("[listLoans] party={} returned {} loan(s)", party, contracts.size());
-                                return ResponseEntity.ok(contracts.stream()
-                                        .map(c -> toLoanApi(c))
-                                        .toList());
+                                logger.debug("[listLoans] party={} returned {} loan(s)", party, contracts.items().size());
+                                return pageResponse(contracts.map(LoanApiImpl::toLoanApi));
                             }));
         });
     }
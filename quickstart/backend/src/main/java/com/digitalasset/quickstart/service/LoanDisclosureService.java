@@ -0,0 +1,269 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.service;
+
+import com.digitalasset.quickstart.config.DisclosureConfig;
+import com.digitalasset.quickstart.config.PqsConfig;
+import com.digitalasset.quickstart.ledger.LedgerApi;
+import com.digitalasset.quickstart.ledger.LedgerCommand;
+import com.digitalasset.quickstart.ledger.ResultProjection;
+import com.digitalasset.quickstart.pqs.Contract;
+import com.digitalasset.quickstart.pqs.PqsChangeWatcher;
+import com.digitalasset.quickstart.repository.DamlRepository;
+import com.digitalasset.quickstart.repository.TenantPropertiesRepository;
+import com.digitalasset.quickstart.security.AuthUtils;
+import com.digitalasset.transcode.java.ContractId;
+import com.digitalasset.transcode.java.Party;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import quickstart_licensing.loan.loanrequest.LoanRequest;
+import quickstart_licensing.loan.loanrequest.LoanRequestForLender;
+
+/**
+ * Discloses platform LoanRequests to every lender tenant exactly once.
+ *
+ * <p>The set of (request, lender) pairs that already have an active LoanRequestForLender is kept from
+ * {@link PqsChangeWatcher} deltas, together with the platform's open LoanRequests. Whenever either changes,
+ * only the missing pairs are submitted, {@code disclosure.batch-size} exercises per transaction and at most
+ * {@code disclosure.max-in-flight} transactions outstanding.
+ * A submitted pair counts as disclosed until it either fails (and becomes eligible again) or its
+ * LoanRequestForLender shows up in PQS.
+ */
+@Service
+public class LoanDisclosureService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanDisclosureService.class);
+
+    private record Pair(String requestId, String lender) {
+    }
+
+    private final LedgerApi ledger;
+    private final DamlRepository damlRepository;
+    private final TenantPropertiesRepository tenantPropertiesRepository;
+    private final AuthUtils auth;
+    private final PqsConfig pqsConfig;
+    private final DisclosureConfig config;
+
+    // Guarded by this
+    private final Map<String, Contract<LoanRequest>> openRequests = new LinkedHashMap<>();
+    private final Map<String, Pair> disclosureByContract = new HashMap<>();
+    private final Map<Pair, Integer> disclosed = new HashMap<>();
+    private final Set<Pair> submitted = new HashSet<>();
+    private final Queue<Pair> queue = new ArrayDeque<>();
+    private final Queue<Pair> retrySingly = new ArrayDeque<>();
+    private int inFlight;
+    private boolean requestsLoaded;
+    private boolean disclosuresLoaded;
+
+    public LoanDisclosureService(LedgerApi ledger, DamlRepository damlRepository,
+                                 TenantPropertiesRepository tenantPropertiesRepository, AuthUtils auth,
+                                 PqsChangeWatcher changeWatcher, PqsConfig pqsConfig, DisclosureConfig config) {
+        this.ledger = ledger;
+        this.damlRepository = damlRepository;
+        this.tenantPropertiesRepository = tenantPropertiesRepository;
+        this.auth = auth;
+        this.pqsConfig = pqsConfig;
+        this.config = config;
+        changeWatcher.subscribe(LoanRequest.class, this::onRequests);
+        changeWatcher.subscribe(LoanRequestForLender.class, this::onDisclosures);
+    }
+
+    /**
+     * Disclose any open platform request that some lender has not seen yet. With the change watcher enabled
+     * this happens on its own as soon as PQS indexes a new request; otherwise the current state is loaded
+     * from PQS first.
+     */
+    public void discloseMissing() {
+        discloseMissingTo(null);
+    }
+
+    /**
+     * Like {@link #discloseMissing()}, also disclosing to {@code lender} if it is not a registered tenant (e.g. a
+     * lender listing the marketplace). Returns without waiting; new disclosures show up once PQS has them.
+     */
+    public void discloseMissingTo(String lender) {
+        if (pqsConfig.getChangeWatcher().isEnabled()) {
+            reconcile(lender);
+            return;
+        }
+        String platformParty = auth.getAppProviderPartyId();
+        damlRepository.findActiveLoanRequestsByPlatform(platformParty)
+                .thenCombine(damlRepository.findAllActiveLoanRequestForLender(), (requests, disclosures) -> {
+                    onRequests(new PqsChangeWatcher.ContractDelta<>(LoanRequest.class, requests, Set.of(), true));
+                    onDisclosures(new PqsChangeWatcher.ContractDelta<>(LoanRequestForLender.class, disclosures, Set.of(), true));
+                    if (lender != null) {
+                        reconcile(lender);
+                    }
+                    return null;
+                })
+                .exceptionally(ex -> {
+                    logger.warn("[LoanDisclosure] failed to load requests/disclosures from PQS: {}", ex.getMessage());
+                    return null;
+                });
+    }
+
+    private void onRequests(PqsChangeWatcher.ContractDelta<LoanRequest> delta) {
+        String platformParty = auth.getAppProviderPartyId();
+        synchronized (this) {
+            if (delta.initial()) {
+                openRequests.clear();
+            }
+            delta.archived().forEach(openRequests::remove);
+            for (var req : delta.created()) {
+                if (platformParty.equals(req.payload.getPlatformOperator.getParty)) {
+                    openRequests.put(req.contractId.getContractId, req);
+                }
+            }
+            requestsLoaded = true;
+        }
+        if (!delta.created().isEmpty()) {
+            reconcile();
+        }
+    }
+
+    private void onDisclosures(PqsChangeWatcher.ContractDelta<LoanRequestForLender> delta) {
+        boolean firstLoad;
+        synchronized (this) {
+            if (delta.initial()) {
+                disclosureByContract.clear();
+                disclosed.clear();
+            }
+            for (String id : delta.archived()) {
+                Pair pair = disclosureByContract.remove(id);
+                if (pair != null) {
+                    disclosed.computeIfPresent(pair, (p, n) -> n == 1 ? null : n - 1);
+                }
+            }
+            for (var c : delta.created()) {
+                Pair pair = new Pair(c.payload.getRequestId.getContractId, c.payload.getLender.getParty);
+                if (disclosureByContract.put(c.contractId.getContractId, pair) == null) {
+                    disclosed.merge(pair, 1, Integer::sum);
+                }
+                submitted.remove(pair);
+            }
+            firstLoad = !disclosuresLoaded;
+            disclosuresLoaded = true;
+        }
+        if (firstLoad) {
+            // Requests may have arrived before the disclosures were known.
+            reconcile();
+        }
+    }
+
+    private void reconcile() {
+        reconcile(null);
+    }
+
+    private void reconcile(String extraLender) {
+        String platformParty = auth.getAppProviderPartyId();
+        List<String> lenders = Stream.concat(
+                        tenantPropertiesRepository.getAllTenants().values().stream()
+                                .map(TenantPropertiesRepository.TenantProperties::getPartyId),
+                        Stream.ofNullable(extraLender))
+                .filter(pid -> pid != null && !pid.isEmpty())
+                .filter(pid -> !pid.equals(platformParty))
+                .distinct()
+                .toList();
+        int added = 0;
+        synchronized (this) {
+            if (!requestsLoaded || !disclosuresLoaded) {
+                return;
+            }
+            for (var req : openRequests.values()) {
+                String borrower = req.payload.getBorrower.getParty;
+                for (String lender : lenders) {
+                    if (lender.equals(borrower)) {
+                        continue;
+                    }
+                    Pair pair = new Pair(req.contractId.getContractId, lender);
+                    if (!disclosed.containsKey(pair) && submitted.add(pair)) {
+                        queue.add(pair);
+                        added++;
+                    }
+                }
+            }
+        }
+        if (added > 0) {
+            logger.info("[LoanDisclosure] disclosing {} missing (request, lender) pair(s)", added);
+            pump();
+        }
+    }
+
+    /** Start queued disclosures while fewer than max-in-flight batches are outstanding. */
+    private void pump() {
+        while (true) {
+            List<Pair> batch = new ArrayList<>();
+            synchronized (this) {
+                if (inFlight >= Math.max(1, config.getMaxInFlight())) {
+                    return;
+                }
+                // Pairs from a failed batch go one at a time so a single stale request cannot sink the rest.
+                Queue<Pair> source = retrySingly.isEmpty() ? queue : retrySingly;
+                int limit = source == retrySingly ? 1 : Math.max(1, config.getBatchSize());
+                while (batch.size() < limit && !source.isEmpty()) {
+                    Pair pair = source.poll();
+                    if (openRequests.containsKey(pair.requestId())) {
+                        batch.add(pair);
+                    } else {
+                        // Request was withdrawn or consumed while queued
+                        submitted.remove(pair);
+                    }
+                }
+                if (batch.isEmpty()) {
+                    if (queue.isEmpty() && retrySingly.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                inFlight++;
+            }
+            disclose(batch);
+        }
+    }
+
+    private void disclose(List<Pair> batch) {
+        List<LedgerCommand<ContractId<LoanRequestForLender>>> commands = batch.stream()
+                .map(pair -> LedgerCommand.exercise(new ContractId<LoanRequest>(pair.requestId()),
+                        new LoanRequest.LoanRequest_DiscloseToLender(new Party(pair.lender()))))
+                .toList();
+        try {
+            ledger.<ContractId<LoanRequestForLender>>submitBatch(commands, UUID.randomUUID().toString(),
+                            auth.getAppProviderPartyId(), ResultProjection.COMMAND_TEMPLATES)
+                    .whenComplete((cids, ex) -> completed(batch, ex));
+        } catch (Exception ex) {
+            completed(batch, ex);
+        }
+    }
+
+    private void completed(List<Pair> batch, Throwable ex) {
+        synchronized (this) {
+            inFlight--;
+            if (ex != null) {
+                if (batch.size() > 1) {
+                    retrySingly.addAll(batch);
+                } else {
+                    batch.forEach(submitted::remove);
+                }
+            }
+        }
+        if (ex != null) {
+            logger.debug("[LoanDisclosure] disclosing {} pair(s), first request={} lender={}, failed: {}",
+                    batch.size(), batch.get(0).requestId(), batch.get(0).lender(), Objects.toString(ex.getMessage()));
+        }
+        pump();
+    }
+}
@@ -3,24 +3,20 @@
 
 package com.digitalasset.quickstart.service;
 
+import static com.digitalasset.quickstart.service.ServiceUtils.pageRequest;
+import static com.digitalasset.quickstart.service.ServiceUtils.pageResponse;
 import static com.digitalasset.quickstart.service.ServiceUtils.traceServiceCallAsync;
 import static com.digitalasset.quickstart.utility.TracingUtils.tracingCtx;
 import static com.digitalasset.quickstart.utility.Utils.toOffsetDateTime;
 
 import com.digitalasset.quickstart.api.LoanRequestsApi;
-import com.digitalasset.quickstart.ledger.LedgerApi;
+import com.digitalasset.quickstart.config.PaginationConfig;
 import com.digitalasset.quickstart.repository.DamlRepository;
 import com.digitalasset.quickstart.security.AuthUtils;
-import com.digitalasset.transcode.java.Party;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
-import java.util.Set;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
 import org.openapitools.model.LoanRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,11 +25,12 @@ import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import com.digitalasset.quickstart.pqs.Contract;
+import com.digitalasset.quickstart.pqs.Page;
 import quickstart_licensing.loan.loanrequest.LoanRequestForLender;
 
 /**
  * Loan requests API. Borrowers see their own requests; lenders see requests disclosed to them
- * (marketplace). Platform discloses requests to lenders on first list so lenders can find borrowers.
+ * (marketplace). Listing as a lender also has the platform disclose any requests that lender has not seen yet.
  */
 @Controller
 @RequestMapping("${openapi.asset.base-path:}")
@@ -41,104 +38,57 @@ public class LoanRequestsApiImpl implements LoanRequestsApi {
 
     private static final Logger logger = LoggerFactory.getLogger(LoanRequestsApiImpl.class);
 
-    private final LedgerApi ledger;
     private final DamlRepository damlRepository;
+    private final LoanDisclosureService loanDisclosure;
     private final AuthUtils auth;
+    private final PaginationConfig paginationConfig;
 
-    public LoanRequestsApiImpl(LedgerApi ledger, DamlRepository damlRepository, AuthUtils auth) {
-        this.ledger = ledger;
+    public LoanRequestsApiImpl(DamlRepository damlRepository, LoanDisclosureService loanDisclosure, AuthUtils auth,
+                               PaginationConfig paginationConfig) {
         this.damlRepository = damlRepository;
+        this.loanDisclosure = loanDisclosure;
         this.auth = auth;
+        this.paginationConfig = paginationConfig;
     }
 
     @Override
     @WithSpan
     @GetMapping("/loan-requests")
-    public CompletableFuture<ResponseEntity<List<LoanRequest>>> listLoanRequests() {
+    public CompletableFuture<ResponseEntity<List<LoanRequest>>> listLoanRequests(Integer limit, String cursor) {
         logger.debug("[listLoanRequests] request received");
         var ctx = tracingCtx(logger, "listLoanRequests");
+        // The list is the union of several PQS listings. Each is read one page at a time in contract id order
+        // and the pages are merged, so a request never loads more than one page per listing.
+        var page = pageRequest(paginationConfig, limit, cursor);
         String appProviderPartyId = auth.getAppProviderPartyId();
         return auth.asAuthenticatedParty(party -> {
             logger.info("[listLoanRequests] party={} appProviderPartyId={}", party, appProviderPartyId);
-            return traceServiceCallAsync(ctx, () ->
-                    damlRepository.findActiveLoanRequestsByBorrower(party)
-                            .thenCompose(borrowerRequests ->
-                    damlRepository.findActiveLoanRequestForLenderByBorrower(party)
-                            .thenCompose(ownDisclosedRequests -> {
-                                List<LoanRequest> result = new ArrayList<>(
-                                        borrowerRequests.stream()
-                                                .map(LoanRequestsApiImpl::toLoanRequestApi)
-                                                .toList());
-                                Set<String> seenIds = new HashSet<>(
-                                        borrowerRequests.stream()
-                                                .map(c -> c.contractId.getContractId)
-                                                .collect(Collectors.toSet()));
-                                // LoanRequest_DiscloseToLender is consuming in the deployed DAML, so the
-                                // original LoanRequest is archived after disclosure and replaced with a
-                                // LoanRequestForLender. Recover the borrower's own requests from there.
-                                for (var c : ownDisclosedRequests) {
-                                    if (seenIds.add(c.contractId.getContractId)) {
-                                        result.add(toLoanRequestApiFromForLender(c));
-                                    }
-                                }
-                                // If not platform, ensure we disclose platform requests to this party (lender marketplace)
-                                if (!party.equals(appProviderPartyId)) {
-                                    return damlRepository.findActiveLoanRequestsByPlatform(appProviderPartyId)
-                                            .thenCompose(platformRequests ->
-                                                    damlRepository.findActiveLoanRequestForLenderByLender(party)
-                                                            .thenCompose(alreadyDisclosed -> {
-                                                                // Already-disclosed may use different id format; match by (borrower,amount,duration,purpose)
-                                                                Set<String> disclosedKeys = alreadyDisclosed.stream()
-                                                                        .map(d -> d.payload.getBorrower.getParty + "|" + d.payload.getAmount + "|" + (d.payload.getDurationDays != null ? d.payload.getDurationDays.longValue() : "") + "|" + (d.payload.getPurpose != null ? d.payload.getPurpose : ""))
-                                                                        .collect(Collectors.toSet());
-                                                                List<CompletableFuture<?>> discloseFutures = new ArrayList<>();
-                                                                for (var req : platformRequests) {
-                                                                    String key = req.payload.getBorrower.getParty + "|" + req.payload.getAmount + "|" + (req.payload.getDurationDays != null ? req.payload.getDurationDays.longValue() : "") + "|" + (req.payload.getPurpose != null ? req.payload.getPurpose : "");
-                                                                    if (!disclosedKeys.contains(key)) {
-                                                                        // Skip disclosing a request to the borrower who created it
-                                                                        if (req.payload.getBorrower.getParty.equals(party)) {
-                                                                            continue;
-                                                                        }
-                                                                        var choice = new quickstart_licensing.loan.loanrequest.LoanRequest
-                                                                                .LoanRequest_DiscloseToLender(new Party(party));
-                                                                        discloseFutures.add(
-                                                                                ledger.exerciseAndGetResult(
-                                                                                        req.contractId,
-                                                                                        choice,
-                                                                                        UUID.randomUUID().toString(),
-                                                                                        appProviderPartyId)
-                                                                                        .exceptionally(ex -> {
-                                                                                            logger.warn("[listLoanRequests] failed to disclose request={} to party={}: {}",
-                                                                                                    req.contractId.getContractId, party, ex.getMessage());
-                                                                                            return null;
-                                                                                        }));
-                                                                    }
-                                                                }
-                                                                return CompletableFuture.allOf(discloseFutures.toArray(CompletableFuture[]::new))
-                                                                        .thenCompose(v -> damlRepository.findActiveLoanRequestForLenderByLender(party));
-                                                            }))
-                                            .thenCompose(disclosedToMe -> {
-                                                // Use LoanRequestForLender contract id per row so "Make offer" can look it up.
-                                                for (var c : disclosedToMe) {
-                                                    if (!seenIds.add(c.contractId.getContractId)) continue;
-                                                    result.add(toLoanRequestApiFromForLender(c));
-                                                }
-                                                logger.info("[listLoanRequests] party={} returning {} request(s) (borrower + disclosed)", party, result.size());
-                                                return CompletableFuture.completedFuture(ResponseEntity.ok(result));
-                                            });
-                                }
-                                // Platform party acts as lender too: return ALL active requests it observes as platformOperator.
-                                return damlRepository.findActiveLoanRequestsByPlatform(appProviderPartyId)
-                                        .thenApply(platformRequests -> {
-                                            for (var req : platformRequests) {
-                                                if (seenIds.add(req.contractId.getContractId)) {
-                                                    result.add(toLoanRequestApi(req));
-                                                }
-                                            }
-                                            logger.info("[listLoanRequests] party={} (platform/lender) returning {} request(s)", party, result.size());
-                                            return ResponseEntity.ok(result);
-                                        });
-                            })));
+            return traceServiceCallAsync(ctx, () -> {
+                // The borrower's own requests; LoanRequest_DiscloseToLender is consuming in the deployed DAML, so
+                // after disclosure they are only found as LoanRequestForLender.
+                List<CompletableFuture<Page<LoanRequest>>> parts = new ArrayList<>(List.of(
+                        damlRepository.findActiveLoanRequestsByBorrower(party, page)
+                                .thenApply(p -> p.map(LoanRequestsApiImpl::toLoanRequestApi)),
+                        damlRepository.findActiveLoanRequestForLenderByBorrower(party, page)
+                                .thenApply(p -> p.map(LoanRequestsApiImpl::toLoanRequestApiFromForLender))));
+                if (party.equals(appProviderPartyId)) {
+                    // Platform party acts as lender too: all active requests it observes as platformOperator.
+                    parts.add(damlRepository.findActiveLoanRequestsByPlatform(appProviderPartyId, page)
+                            .thenApply(p -> p.map(LoanRequestsApiImpl::toLoanRequestApi)));
+                } else {
+                    // Lender marketplace: requests disclosed to this party. Missing disclosures are submitted in
+                    // the background and listed once PQS has indexed them.
+                    loanDisclosure.discloseMissingTo(party);
+                    parts.add(damlRepository.findActiveLoanRequestForLenderByLender(party, page)
+                            .thenApply(p -> p.map(LoanRequestsApiImpl::toLoanRequestApiFromForLender)));
+                }
+                return CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new)).thenApply(v -> {
+                    var merged = Page.merge(parts.stream().map(CompletableFuture::join).toList(), page,
+                            LoanRequest::getContractId);
+                    logger.info("[listLoanRequests] party={} returning {} request(s)", party, merged.items().size());
+                    return pageResponse(merged);
+                });
+            });
         });
     }
 
@@ -4,11 +4,14 @@
 package com.digitalasset.quickstart.service;
 
 import static com.digitalasset.quickstart.service.ServiceUtils.ensurePresent;
+import static com.digitalasset.quickstart.service.ServiceUtils.pageRequest;
+import static com.digitalasset.quickstart.service.ServiceUtils.pageResponse;
 import static com.digitalasset.quickstart.service.ServiceUtils.traceServiceCallAsync;
 import static com.digitalasset.quickstart.utility.TracingUtils.tracingCtx;
 import static com.digitalasset.quickstart.utility.Utils.toOffsetDateTime;
 
 import com.digitalasset.quickstart.api.MarketApi;
+import com.digitalasset.quickstart.config.PaginationConfig;
 import com.digitalasset.quickstart.ledger.LedgerApi;
 import com.digitalasset.quickstart.repository.DamlRepository;
 import com.digitalasset.quickstart.security.AuthUtils;
@@ -42,27 +45,27 @@ public class MarketMakerApiImpl implements MarketApi {
     private final DamlRepository damlRepository;
     private final AuthUtils auth;
     private final MarketMakerService marketMakerService;
+    private final PaginationConfig paginationConfig;
 
     public MarketMakerApiImpl(LedgerApi ledger, DamlRepository damlRepository,
-                              AuthUtils auth, MarketMakerService marketMakerService) {
+                              AuthUtils auth, MarketMakerService marketMakerService,
+                              PaginationConfig paginationConfig) {
         this.ledger = ledger;
         this.damlRepository = damlRepository;
         this.auth = auth;
         this.marketMakerService = marketMakerService;
+        this.paginationConfig = paginationConfig;
     }
 
     @Override
     @WithSpan
     @GetMapping("/market/lender-bids")
-    public CompletableFuture<ResponseEntity<List<LenderBidResponse>>> listLenderBids() {
+    public CompletableFuture<ResponseEntity<List<LenderBidResponse>>> listLenderBids(Integer limit, String cursor) {
         var ctx = tracingCtx(logger, "listLenderBids");
+        var page = pageRequest(paginationConfig, limit, cursor);
         return auth.asAuthenticatedParty(party -> traceServiceCallAsync(ctx, () ->
-                damlRepository.findActiveLenderBids().thenApply(bids -> {
-                    List<LenderBidResponse> api = bids.stream()
-                            .map(MarketMakerApiImpl::toLenderBidApi)
-                            .toList();
-                    return ResponseEntity.ok(api);
-                })
+                damlRepository.findActiveLenderBids(page).thenApply(bids ->
+                        pageResponse(bids.map(MarketMakerApiImpl::toLenderBidApi)))
         ));
     }
 
@@ -92,12 +95,7 @@ public class MarketMakerApiImpl implements MarketApi {
             return ledger.create(template,
                     commandId != null ? commandId : UUID.randomUUID().toString(), party)
                     .thenApply(v -> {
-                        // Trigger a matching cycle 2 s later so PQS has time to index the new bid
-                        CompletableFuture.delayedExecutor(2, java.util.concurrent.TimeUnit.SECONDS)
-                                .execute(() -> {
-                                    try { marketMakerService.scheduledMatch(); }
-                                    catch (Exception e) { logger.debug("[createLenderBid] async match failed: {}", e.getMessage()); }
-                                });
+                        // No explicit match trigger: MarketMakerService is woken once PQS indexes the new bid
                         LenderBidResponse resp = new LenderBidResponse();
                         resp.setContractId("");
                         resp.setLender(party);
@@ -121,7 +119,7 @@ public class MarketMakerApiImpl implements MarketApi {
                 damlRepository.findLenderBidById(contractId).thenCompose(opt -> {
                     var bid = ensurePresent(opt, "LenderBid not found: %s", contractId);
                     var choice = new LenderBid.LenderBid_Cancel();
-                    return ledger.exerciseAndGetResult(bid.contractId, choice,
+                    return ledger.exercise(bid.contractId, choice,
                             commandId != null ? commandId : UUID.randomUUID().toString(), party)
                             .thenApply(v -> ResponseEntity.<Void>noContent().build());
                 })
@@ -131,15 +129,12 @@ public class MarketMakerApiImpl implements MarketApi {
     @Override
     @WithSpan
     @GetMapping("/market/borrower-asks")
-    public CompletableFuture<ResponseEntity<List<BorrowerAskResponse>>> listBorrowerAsks() {
+    public CompletableFuture<ResponseEntity<List<BorrowerAskResponse>>> listBorrowerAsks(Integer limit, String cursor) {
         var ctx = tracingCtx(logger, "listBorrowerAsks");
+        var page = pageRequest(paginationConfig, limit, cursor);
         return auth.asAuthenticatedParty(party -> traceServiceCallAsync(ctx, () ->
-                damlRepository.findActiveBorrowerAsks().thenApply(asks -> {
-                    List<BorrowerAskResponse> api = asks.stream()
-                            .map(MarketMakerApiImpl::toBorrowerAskApi)
-                            .toList();
-                    return ResponseEntity.ok(api);
-                })
+                damlRepository.findActiveBorrowerAsks(page).thenApply(asks ->
+                        pageResponse(asks.map(MarketMakerApiImpl::toBorrowerAskApi)))
         ));
     }
 
@@ -170,12 +165,7 @@ public class MarketMakerApiImpl implements MarketApi {
             return ledger.create(template,
                     commandId != null ? commandId : UUID.randomUUID().toString(), party)
                     .thenApply(v -> {
-                        // Trigger a matching cycle 2 s later so PQS has time to index the new ask
-                        CompletableFuture.delayedExecutor(2, java.util.concurrent.TimeUnit.SECONDS)
-                                .execute(() -> {
-                                    try { marketMakerService.scheduledMatch(); }
-                                    catch (Exception e) { logger.debug("[createBorrowerAsk] async match failed: {}", e.getMessage()); }
-                                });
+                        // No explicit match trigger: MarketMakerService is woken once PQS indexes the new ask
                         BorrowerAskResponse resp = new BorrowerAskResponse();
                         resp.setContractId("");
                         resp.setBorrower(party);
@@ -198,7 +188,7 @@ public class MarketMakerApiImpl implements MarketApi {
                 damlRepository.findBorrowerAskById(contractId).thenCompose(opt -> {
                     var ask = ensurePresent(opt, "BorrowerAsk not found: %s", contractId);
                     var choice = new BorrowerAsk.BorrowerAsk_Cancel();
-                    return ledger.exerciseAndGetResult(ask.contractId, choice,
+                    return ledger.exercise(ask.contractId, choice,
                             commandId != null ? commandId : UUID.randomUUID().toString(), party)
                             .thenApply(v -> ResponseEntity.<Void>noContent().build());
                 })
@@ -3,16 +3,31 @@
 
 package com.digitalasset.quickstart.service;
 
+import com.digitalasset.quickstart.config.MarketMakerConfig;
+import com.digitalasset.quickstart.config.PqsConfig;
 import com.digitalasset.quickstart.ledger.LedgerApi;
-import com.digitalasset.quickstart.pqs.Contract;
+import com.digitalasset.quickstart.ledger.LedgerCommand;
+import com.digitalasset.quickstart.pqs.PqsChangeWatcher;
 import com.digitalasset.quickstart.repository.DamlRepository;
 import com.digitalasset.quickstart.security.AuthUtils;
+import com.digitalasset.transcode.java.ContractId;
 import com.digitalasset.transcode.java.Party;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
@@ -21,8 +36,17 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import quickstart_licensing.loan.marketmaker.BorrowerAsk;
 import quickstart_licensing.loan.marketmaker.LenderBid;
+import quickstart_licensing.loan.marketmaker.MatchPair;
 import quickstart_licensing.loan.marketmaker.MatchingEngine;
 
+/**
+ * Matches crossing LenderBid/BorrowerAsk orders through the platform's MatchingEngine.
+ * A matching cycle is woken as soon as PQS indexes a new bid or ask (see {@link PqsChangeWatcher});
+ * a slow fallback timer covers missed notifications. Resting orders are kept in an {@link OrderBookIndex}
+ * fed by the same notifications, so a cycle only visits crossing orders instead of reloading the book.
+ * The matches of a cycle are grouped into MatchOrdersBatch commands of up to {@code market-maker.batch-size}
+ * pairs, which are submitted concurrently, bounded by {@code market-maker.max-in-flight}.
+ */
 @Service
 public class MarketMakerService {
 
@@ -31,13 +55,80 @@ public class MarketMakerService {
     private final DamlRepository damlRepository;
     private final LedgerApi ledger;
     private final AuthUtils auth;
+    private final PqsConfig pqsConfig;
+    private final MarketMakerConfig config;
+    private final Timer cycleTimer;
+    private final Timer matchTimer;
+    private final Timer batchTimer;
+    private final DistributionSummary matchesPerCycle;
+    private final Counter failedMatches;
+    private final OrderBookIndex orderBook = new OrderBookIndex();
     private final AtomicBoolean running = new AtomicBoolean(false);
     private final AtomicBoolean engineBootstrapped = new AtomicBoolean(false);
+    private final AtomicBoolean matchRequested = new AtomicBoolean(false);
+    private final ExecutorService matchExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "market-maker");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    public MarketMakerService(DamlRepository damlRepository, LedgerApi ledger, AuthUtils auth) {
+    public MarketMakerService(DamlRepository damlRepository, LedgerApi ledger, AuthUtils auth,
+                              PqsChangeWatcher changeWatcher, PqsConfig pqsConfig, MarketMakerConfig config,
+                              MeterRegistry meterRegistry) {
         this.damlRepository = damlRepository;
         this.ledger = ledger;
         this.auth = auth;
+        this.pqsConfig = pqsConfig;
+        this.config = config;
+        this.cycleTimer = Timer.builder("market.maker.cycle")
+                .description("Wall-clock time to submit all matches planned in one cycle")
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("market.maker.match")
+                .description("Ledger round trip of a single match command")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("market.maker.batch")
+                .description("Ledger round trip of a MatchOrdersBatch command")
+                .register(meterRegistry);
+        this.matchesPerCycle = DistributionSummary.builder("market.maker.cycle.matches")
+                .description("Successful matches per cycle")
+                .register(meterRegistry);
+        this.failedMatches = Counter.builder("market.maker.match.failed")
+                .description("Match commands rejected by the ledger")
+                .register(meterRegistry);
+        // Only newly indexed orders can create a crossing; archivals never do.
+        changeWatcher.subscribe(LenderBid.class, delta -> {
+            orderBook.applyBids(delta.created(), delta.archived());
+            if (!delta.created().isEmpty()) requestMatch();
+        });
+        changeWatcher.subscribe(BorrowerAsk.class, delta -> {
+            orderBook.applyAsks(delta.created(), delta.archived());
+            if (!delta.created().isEmpty()) requestMatch();
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        matchExecutor.shutdownNow();
+    }
+
+    /**
+     * Ask for a matching cycle without blocking the caller. Requests that arrive while a cycle is
+     * running are coalesced into a single follow-up cycle.
+     */
+    public void requestMatch() {
+        if (matchRequested.compareAndSet(false, true)) {
+            matchExecutor.execute(() -> {
+                while (matchRequested.getAndSet(false)) {
+                    matchIfIdle();
+                }
+            });
+        }
+    }
+
+    /** Safety net in case a change notification was missed (e.g. PQS briefly unavailable). */
+    @Scheduled(fixedDelayString = "${market-maker.fallback-interval-ms:30000}")
+    public void fallbackMatch() {
+        requestMatch();
     }
 
     @EventListener(ApplicationReadyEvent.class)
@@ -77,8 +168,7 @@ public class MarketMakerService {
         }
     }
 
-    @Scheduled(fixedDelay = 5000)
-    public void scheduledMatch() {
+    private void matchIfIdle() {
         if (!running.compareAndSet(false, true)) {
             return;
         }
@@ -103,48 +193,140 @@ public class MarketMakerService {
         }
         var engineContract = engineOpt.get();
 
-        List<Contract<LenderBid>> bids = new ArrayList<>(
-                damlRepository.findActiveLenderBids().join());
-        List<Contract<BorrowerAsk>> asks = new ArrayList<>(
-                damlRepository.findActiveBorrowerAsks().join());
-
-        bids.sort(Comparator.comparing(c -> c.payload.getMinInterestRate));
-        asks.sort(Comparator.comparing((Contract<BorrowerAsk> c) -> c.payload.getMaxInterestRate).reversed());
-
-        int matchCount = 0;
-        var usedBids = new java.util.HashSet<String>();
-        var usedAsks = new java.util.HashSet<String>();
-
-        for (var bid : bids) {
-            if (usedBids.contains(bid.contractId.getContractId)) continue;
-            for (var ask : asks) {
-                if (usedAsks.contains(ask.contractId.getContractId)) continue;
-                if (bid.payload.getMinInterestRate.compareTo(ask.payload.getMaxInterestRate) > 0) continue;
-                if (ask.payload.getDuration > bid.payload.getMaxDuration) continue;
-
-                try {
-                    var choice = new MatchingEngine.MatchOrders(bid.contractId, ask.contractId);
-                    ledger.exerciseAndGetResult(
-                            engineContract.contractId,
-                            choice,
-                            UUID.randomUUID().toString(),
-                            platformParty
-                    ).join();
-                    matchCount++;
-                    usedAsks.add(ask.contractId.getContractId);
-                    usedBids.add(bid.contractId.getContractId);
-                    logger.info("[MarketMakerService] matched bid={} ask={}", bid.contractId.getContractId, ask.contractId.getContractId);
-                    break;
-                } catch (Exception e) {
-                    logger.warn("[MarketMakerService] match failed bid={} ask={}: {}",
-                            bid.contractId.getContractId, ask.contractId.getContractId, e.getMessage());
-                }
-            }
+        if (!pqsConfig.getChangeWatcher().isEnabled()) {
+            // Without change notifications the index is not maintained; rebuild it for this cycle.
+            orderBook.reset(damlRepository.findActiveLenderBids().join(),
+                    damlRepository.findActiveBorrowerAsks().join());
         }
 
+        List<OrderBookIndex.Match> plan = orderBook.planMatches();
+        if (plan.isEmpty()) {
+            return 0;
+        }
+
+        // Batches are disjoint in bids and asks, and both match choices are nonconsuming on the engine,
+        // so they can be in flight together without contention.
+        long cycleStart = System.nanoTime();
+        Semaphore window = new Semaphore(Math.max(1, config.getMaxInFlight()));
+        List<CompletableFuture<Integer>> pending = new ArrayList<>();
+        for (var batch : toBatches(plan, config.getBatchSize())) {
+            window.acquireUninterruptibly();
+            pending.add(submitBatch(engineContract.contractId, batch, platformParty)
+                    .whenComplete((n, e) -> window.release()));
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+        long elapsedNanos = System.nanoTime() - cycleStart;
+        cycleTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        int matchCount = pending.stream().mapToInt(CompletableFuture::join).sum();
+        matchesPerCycle.record(matchCount);
+
         if (matchCount > 0) {
-            logger.info("[MarketMakerService] completed {} match(es)", matchCount);
+            double elapsedMs = elapsedNanos / 1_000_000.0;
+            logger.info("[MarketMakerService] completed {}/{} match(es) in {} ms ({} matches/s)",
+                    matchCount, plan.size(), Math.round(elapsedMs), Math.round(matchCount * 1000.0 / Math.max(elapsedMs, 1.0)));
         }
         return matchCount;
     }
+
+    /**
+     * Group matches into batches of at most {@code batchSize} pairs. All matches of one bid end up in the
+     * same batch (the batch choice follows a partially filled bid to its remainder), so a bid with more
+     * matches than {@code batchSize} forms a batch of its own.
+     */
+    static List<List<List<OrderBookIndex.Match>>> toBatches(List<OrderBookIndex.Match> plan, int batchSize) {
+        Map<String, List<OrderBookIndex.Match>> byBid = new LinkedHashMap<>();
+        for (var match : plan) {
+            byBid.computeIfAbsent(match.bid().contractId.getContractId, id -> new ArrayList<>()).add(match);
+        }
+        List<List<List<OrderBookIndex.Match>>> batches = new ArrayList<>();
+        List<List<OrderBookIndex.Match>> current = new ArrayList<>();
+        int currentSize = 0;
+        for (var group : byBid.values()) {
+            if (!current.isEmpty() && currentSize + group.size() > batchSize) {
+                batches.add(current);
+                current = new ArrayList<>();
+                currentSize = 0;
+            }
+            current.add(group);
+            currentSize += group.size();
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+
+    /**
+     * Submit a batch of per-bid match groups as one MatchOrdersBatch command. A batch is atomic, so when
+     * it is rejected it is split in half and retried until the failing bid groups are isolated and released.
+     * Completes with the number of successful matches and never completes exceptionally.
+     */
+    private CompletableFuture<Integer> submitBatch(ContractId<MatchingEngine> engineCid,
+                                                   List<List<OrderBookIndex.Match>> groups, String platformParty) {
+        List<OrderBookIndex.Match> matches = groups.stream().flatMap(List::stream).toList();
+        if (matches.size() == 1) {
+            return submitMatch(engineCid, matches.get(0), platformParty).thenApply(ok -> ok ? 1 : 0);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<?> submission;
+        try {
+            List<MatchPair> pairs = matches.stream()
+                    .map(m -> new MatchPair(m.bid().contractId, m.ask().contractId))
+                    .toList();
+            var choice = new MatchingEngine.MatchOrdersBatch(pairs);
+            submission = ledger.submitAndTrack(List.of(LedgerCommand.exercise(engineCid, choice)),
+                    UUID.randomUUID().toString(), platformParty);
+        } catch (Exception e) {
+            submission = CompletableFuture.failedFuture(e);
+        }
+        return submission.handle((result, e) -> e).thenCompose(e -> {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (e == null) {
+                logger.info("[MarketMakerService] matched batch of {} pair(s)", matches.size());
+                return CompletableFuture.completedFuture(matches.size());
+            }
+            if (groups.size() == 1) {
+                matches.forEach(orderBook::release);
+                failedMatches.increment(matches.size());
+                logger.warn("[MarketMakerService] match batch failed for bid={} ({} pair(s)): {}",
+                        matches.get(0).bid().contractId.getContractId, matches.size(), e.getMessage());
+                return CompletableFuture.completedFuture(0);
+            }
+            int mid = groups.size() / 2;
+            var left = submitBatch(engineCid, groups.subList(0, mid), platformParty);
+            var right = submitBatch(engineCid, groups.subList(mid, groups.size()), platformParty);
+            return left.thenCombine(right, Integer::sum);
+        });
+    }
+
+    /** Submit one match; completes with whether it succeeded and never completes exceptionally. */
+    private CompletableFuture<Boolean> submitMatch(ContractId<MatchingEngine> engineCid, OrderBookIndex.Match match,
+                                                   String platformParty) {
+        var bid = match.bid();
+        var ask = match.ask();
+        long start = System.nanoTime();
+        CompletableFuture<?> submission;
+        try {
+            var choice = new MatchingEngine.MatchOrders(bid.contractId, ask.contractId);
+            submission = ledger.submitAndTrack(List.of(LedgerCommand.exercise(engineCid, choice)),
+                    UUID.randomUUID().toString(), platformParty);
+        } catch (Exception e) {
+            submission = CompletableFuture.failedFuture(e);
+        }
+        return submission.handle((result, e) -> {
+            matchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (e != null) {
+                orderBook.release(match);
+                failedMatches.increment();
+                logger.warn("[MarketMakerService] match failed bid={} ask={}: {}",
+                        bid.contractId.getContractId, ask.contractId.getContractId, e.getMessage());
+                return false;
+            }
+            // Both orders stay reserved until PQS reports them archived (a partial fill's remainder
+            // arrives as a newly created bid).
+            logger.info("[MarketMakerService] matched bid={} ask={}", bid.contractId.getContractId, ask.contractId.getContractId);
+            return true;
+        });
+    }
 }
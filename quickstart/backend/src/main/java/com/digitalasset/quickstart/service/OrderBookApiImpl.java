@@ -8,17 +8,25 @@ import static com.digitalasset.quickstart.utility.TracingUtils.tracingCtx;
 
 import com.digitalasset.quickstart.api.OrderbookApi;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
 import org.openapitools.jackson.nullable.JsonNullable;
 import org.openapitools.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * REST endpoint for the aggregated order book.
  * GET /orderbook is public (no auth) and exposes no private DAML party IDs.
+ * Responses carry the snapshot version as ETag, so polling clients revalidate with If-None-Match and get a 304
+ * while the book is unchanged. GET /orderbook/stream pushes changes instead (see {@link OrderBookStream}).
  */
 @RestController
 @RequestMapping("${openapi.asset.base-path:}")
@@ -27,40 +35,77 @@ public class OrderBookApiImpl implements OrderbookApi {
     private static final Logger logger = LoggerFactory.getLogger(OrderBookApiImpl.class);
 
     private final OrderBookService orderBookService;
+    private final OrderBookStream orderBookStream;
 
-    public OrderBookApiImpl(OrderBookService orderBookService) {
+    public OrderBookApiImpl(OrderBookService orderBookService, OrderBookStream orderBookStream) {
         this.orderBookService = orderBookService;
+        this.orderBookStream = orderBookStream;
     }
 
     @Override
     @WithSpan
-    public CompletableFuture<ResponseEntity<OrderBookResponse>> getOrderBook() {
+    public CompletableFuture<ResponseEntity<OrderBookResponse>> getOrderBook(String ifNoneMatch) {
         var ctx = tracingCtx(logger, "getOrderBook");
         return traceServiceCallAsync(ctx, () ->
-                orderBookService.buildOrderBook().thenApply(ob -> {
-                    logger.debug("[getOrderBook] returning asks={} bids={}", ob.asks().size(), ob.bids().size());
-                    OrderBookResponse resp = new OrderBookResponse();
-                    resp.setAsks(ob.asks().stream().map(t -> {
-                        OrderBookTier tier = new OrderBookTier();
-                        tier.setInterestRate(t.interestRate());
-                        tier.setDuration(t.duration());
-                        tier.setTotalAmount(t.totalAmount());
-                        tier.setOrderCount(t.orderCount());
-                        return tier;
-                    }).toList());
-                    resp.setBids(ob.bids().stream().map(t -> {
-                        OrderBookTier tier = new OrderBookTier();
-                        tier.setInterestRate(t.interestRate());
-                        tier.setDuration(t.duration());
-                        tier.setTotalAmount(t.totalAmount());
-                        tier.setOrderCount(t.orderCount());
-                        return tier;
-                    }).toList());
-                    resp.setSpread(ob.spread() != null
-                            ? JsonNullable.of(ob.spread())
-                            : JsonNullable.<java.math.BigDecimal>undefined());
-                    return ResponseEntity.ok(resp);
+                orderBookService.currentSnapshot().thenApply(snapshot -> {
+                    String etag = snapshot.etag();
+                    if (etag != null && etagMatches(ifNoneMatch, etag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(etag)
+                                .cacheControl(CacheControl.noCache())
+                                .<OrderBookResponse>build();
+                    }
+                    var ob = snapshot.orderBook();
+                    logger.debug("[getOrderBook] returning v{} asks={} bids={}", snapshot.version(), ob.asks().size(), ob.bids().size());
+                    OrderBookResponse resp = toResponse(ob);
+                    var ok = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+                    if (etag != null) {
+                        ok.eTag(etag);
+                    }
+                    return ok.body(resp);
                 })
         );
     }
+
+    /**
+     * Server-sent event stream of the order book: a full snapshot, then tier-level deltas.
+     * Not part of the OpenAPI spec because the generator cannot describe event streams.
+     */
+    @GetMapping(path = "/orderbook/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderBook(HttpServletResponse response) {
+        logger.debug("[streamOrderBook] new subscriber");
+        // Keep reverse proxies (nginx) from buffering the event stream
+        response.setHeader("X-Accel-Buffering", "no");
+        return orderBookStream.subscribe();
+    }
+
+    static OrderBookResponse toResponse(OrderBookService.OrderBook ob) {
+        OrderBookResponse resp = new OrderBookResponse();
+        resp.setAsks(ob.asks().stream().map(OrderBookApiImpl::toApi).toList());
+        resp.setBids(ob.bids().stream().map(OrderBookApiImpl::toApi).toList());
+        resp.setSpread(ob.spread() != null
+                ? JsonNullable.of(ob.spread())
+                : JsonNullable.<java.math.BigDecimal>undefined());
+        return resp;
+    }
+
+    static OrderBookTier toApi(OrderBookService.Tier t) {
+        OrderBookTier tier = new OrderBookTier();
+        tier.setInterestRate(t.interestRate());
+        tier.setDuration(t.duration());
+        tier.setTotalAmount(t.totalAmount());
+        tier.setOrderCount(t.orderCount());
+        return tier;
+    }
+
+    /** If-None-Match may list several (possibly weak) ETags or be {@code *}. */
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(t -> t.startsWith("W/") ? t.substring(2) : t)
+                .anyMatch(t -> t.equals("*") || t.equals(etag));
+    }
 }
@@ -0,0 +1,246 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.service;
+
+import com.digitalasset.quickstart.pqs.Contract;
+import com.digitalasset.transcode.java.Template;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import quickstart_licensing.loan.marketmaker.BorrowerAsk;
+import quickstart_licensing.loan.marketmaker.LenderBid;
+
+/**
+ * In-memory price-time priority index of resting LenderBid and BorrowerAsk orders, maintained
+ * incrementally from PQS deltas.
+ *
+ * <p>Each side is keyed by rate level, then duration bucket, with a FIFO queue ordered by createdAt
+ * (contract id breaking ties) per bucket. The queue position follows from the order itself, so an order
+ * released after a failed submission gets its time priority back. Bids are visited from the lowest minInterestRate up; each bid repeatedly takes the best
+ * ask (the highest maxInterestRate not below the bid's rate whose duration fits, earliest first) until its
+ * remaining amount is filled. Orders handed out by {@link #planMatches()} are reserved until PQS reports
+ * them archived or {@link #release} puts them back after a failed submission.
+ *
+ * <p>All methods are synchronized; the index is updated from the PQS watcher thread and read from the
+ * matching thread.
+ */
+final class OrderBookIndex {
+
+    record Match(Contract<LenderBid> bid, Contract<BorrowerAsk> ask) {
+    }
+
+    private final Side<LenderBid> bids = new Side<>(
+            Comparator.naturalOrder(),
+            c -> c.payload.getMinInterestRate,
+            c -> c.payload.getMaxDuration,
+            c -> c.payload.getCreatedAt);
+    private final Side<BorrowerAsk> asks = new Side<>(
+            Comparator.<BigDecimal>reverseOrder(),
+            c -> c.payload.getMaxInterestRate,
+            c -> c.payload.getDuration,
+            c -> c.payload.getCreatedAt);
+
+    synchronized void applyBids(Collection<Contract<LenderBid>> created, Set<String> archived) {
+        bids.apply(created, archived);
+    }
+
+    synchronized void applyAsks(Collection<Contract<BorrowerAsk>> created, Set<String> archived) {
+        asks.apply(created, archived);
+    }
+
+    /** Replace the whole index content, e.g. when change notifications are disabled. */
+    synchronized void reset(Collection<Contract<LenderBid>> allBids, Collection<Contract<BorrowerAsk>> allAsks) {
+        bids.clear();
+        asks.clear();
+        bids.apply(allBids, Set.of());
+        asks.apply(allAsks, Set.of());
+    }
+
+    synchronized int restingBids() {
+        return bids.size();
+    }
+
+    synchronized int restingAsks() {
+        return asks.size();
+    }
+
+    /**
+     * Compute the matches for the current book and reserve the orders involved.
+     * A bid keeps taking asks until its remainingAmount is used up, mirroring the partial fills of
+     * MatchOrders; each ask is matched at most once. Matches of one bid are listed in fill order.
+     */
+    synchronized List<Match> planMatches() {
+        List<Match> matches = new ArrayList<>();
+        BigDecimal topAskRate = asks.bestRate();
+        if (topAskRate == null) {
+            return matches;
+        }
+        // Only bid levels at or below the best ask rate can cross at all.
+        List<Contract<LenderBid>> candidates = bids.inPriorityOrder(topAskRate);
+        for (Contract<LenderBid> bid : candidates) {
+            BigDecimal bidRate = bid.payload.getMinInterestRate;
+            BigDecimal bestAskRate = asks.bestRate();
+            if (bestAskRate == null || bidRate.compareTo(bestAskRate) > 0) {
+                // Bids are visited by ascending rate, so no later bid can cross either.
+                break;
+            }
+            BigDecimal remaining = bid.payload.getRemainingAmount;
+            while (remaining.signum() > 0) {
+                Contract<BorrowerAsk> ask = bestAskFor(bidRate, bid.payload.getMaxDuration);
+                if (ask == null) {
+                    break;
+                }
+                asks.reserve(ask);
+                matches.add(new Match(bid, ask));
+                remaining = remaining.subtract(remaining.min(ask.payload.getAmount));
+            }
+            if (remaining.compareTo(bid.payload.getRemainingAmount) < 0) {
+                bids.reserve(bid);
+            }
+        }
+        return matches;
+    }
+
+    /** Return the orders of a failed match to the book, unless PQS has archived them in the meantime. */
+    synchronized void release(Match match) {
+        bids.unreserve(match.bid().contractId.getContractId);
+        asks.unreserve(match.ask().contractId.getContractId);
+    }
+
+    private Contract<BorrowerAsk> bestAskFor(BigDecimal bidRate, long maxDuration) {
+        // Ask levels are ordered by descending rate, so the head map holds every rate >= bidRate.
+        for (var level : asks.levels.headMap(bidRate, true).values()) {
+            Contract<BorrowerAsk> best = null;
+            for (var bucket : level.headMap(maxDuration, true).values()) {
+                Contract<BorrowerAsk> head = bucket.firstEntry().getValue();
+                if (best == null || asks.createdAt.apply(head).isBefore(asks.createdAt.apply(best))) {
+                    best = head;
+                }
+            }
+            if (best != null) {
+                return best;
+            }
+        }
+        return null;
+    }
+
+    /** Time priority of an order within its bucket. */
+    private record Priority(Instant createdAt, String contractId) implements Comparable<Priority> {
+        private static final Comparator<Priority> ORDER =
+                Comparator.comparing(Priority::createdAt).thenComparing(Priority::contractId);
+
+        @Override
+        public int compareTo(Priority other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class Side<T extends Template> {
+        private final NavigableMap<BigDecimal, NavigableMap<Long, NavigableMap<Priority, Contract<T>>>> levels;
+        private final Map<String, Contract<T>> byId = new HashMap<>();
+        private final Map<String, Contract<T>> reserved = new HashMap<>();
+        private final Function<Contract<T>, BigDecimal> rate;
+        private final Function<Contract<T>, Long> duration;
+        private final Function<Contract<T>, Instant> createdAt;
+
+        Side(Comparator<BigDecimal> rateOrder,
+             Function<Contract<T>, BigDecimal> rate,
+             Function<Contract<T>, Long> duration,
+             Function<Contract<T>, Instant> createdAt) {
+            this.levels = new TreeMap<>(rateOrder);
+            this.rate = rate;
+            this.duration = duration;
+            this.createdAt = createdAt;
+        }
+
+        int size() {
+            return byId.size();
+        }
+
+        void clear() {
+            levels.clear();
+            byId.clear();
+            reserved.clear();
+        }
+
+        void apply(Collection<Contract<T>> created, Set<String> archived) {
+            for (String id : archived) {
+                reserved.remove(id);
+                remove(id);
+            }
+            created.forEach(this::add);
+        }
+
+        BigDecimal bestRate() {
+            return levels.isEmpty() ? null : levels.firstKey();
+        }
+
+        List<Contract<T>> inPriorityOrder(BigDecimal upToRate) {
+            List<Contract<T>> result = new ArrayList<>();
+            for (var level : levels.headMap(upToRate, true).values()) {
+                for (var bucket : level.values()) {
+                    result.addAll(bucket.values());
+                }
+            }
+            return result;
+        }
+
+        void reserve(Contract<T> contract) {
+            String id = contract.contractId.getContractId;
+            if (remove(id) != null) {
+                reserved.put(id, contract);
+            }
+        }
+
+        void unreserve(String id) {
+            Contract<T> contract = reserved.remove(id);
+            if (contract != null) {
+                add(contract);
+            }
+        }
+
+        private void add(Contract<T> contract) {
+            String id = contract.contractId.getContractId;
+            if (byId.containsKey(id) || reserved.containsKey(id)) {
+                return;
+            }
+            byId.put(id, contract);
+            levels.computeIfAbsent(rate.apply(contract), r -> new TreeMap<>())
+                    .computeIfAbsent(duration.apply(contract), d -> new TreeMap<>())
+                    .put(priority(contract), contract);
+        }
+
+        private Contract<T> remove(String id) {
+            Contract<T> contract = byId.remove(id);
+            if (contract == null) {
+                return null;
+            }
+            BigDecimal r = rate.apply(contract);
+            Long d = duration.apply(contract);
+            var level = levels.get(r);
+            var bucket = level.get(d);
+            bucket.remove(priority(contract));
+            if (bucket.isEmpty()) {
+                level.remove(d);
+                if (level.isEmpty()) {
+                    levels.remove(r);
+                }
+            }
+            return contract;
+        }
+
+        private Priority priority(Contract<T> contract) {
+            return new Priority(createdAt.apply(contract), contract.contractId.getContractId);
+        }
+    }
+}
@@ -3,17 +3,32 @@
 
 package com.digitalasset.quickstart.service;
 
+import com.digitalasset.quickstart.config.OrderBookConfig;
+import com.digitalasset.quickstart.config.PqsConfig;
+import com.digitalasset.quickstart.pqs.Contract;
+import com.digitalasset.quickstart.pqs.PqsChangeWatcher;
 import com.digitalasset.quickstart.repository.DamlRepository;
+import com.digitalasset.transcode.java.Template;
 import java.math.BigDecimal;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import quickstart_licensing.loan.marketmaker.BorrowerAsk;
+import quickstart_licensing.loan.marketmaker.LenderBid;
 
 /**
  * Aggregates active LenderBid and BorrowerAsk contracts into an order book view.
  * No private DAML party IDs are exposed in the output.
+ *
+ * <p>The tiers are maintained incrementally from {@link PqsChangeWatcher} deltas and published as an
+ * immutable, versioned {@link Snapshot} shared by all readers. Until both sides have been loaded (or when
+ * the change watcher is disabled) the order book is built directly from PQS, aggregating the tiers in SQL
+ * unless {@code order-book.aggregation} is {@code java}.
  */
 @Service
 public class OrderBookService {
@@ -21,71 +36,236 @@ public class OrderBookService {
     private static final Logger logger = LoggerFactory.getLogger(OrderBookService.class);
 
     private final DamlRepository damlRepository;
+    private final PqsConfig pqsConfig;
+    private final OrderBookConfig orderBookConfig;
+    // Distinguishes snapshot versions across restarts so a stale ETag never matches a new process
+    private final String etagPrefix = Long.toString(System.currentTimeMillis(), 36);
+    private final TierBook<LenderBid> askTiers = new TierBook<>(
+            Comparator.naturalOrder(),
+            c -> c.payload.getMinInterestRate,
+            c -> c.payload.getMaxDuration,
+            c -> c.payload.getRemainingAmount);
+    private final TierBook<BorrowerAsk> bidTiers = new TierBook<>(
+            Comparator.reverseOrder(),
+            c -> c.payload.getMaxInterestRate,
+            c -> c.payload.getDuration,
+            c -> c.payload.getAmount);
+    private final List<Consumer<Snapshot>> snapshotListeners = new CopyOnWriteArrayList<>();
+    private long version;
+    private volatile Snapshot snapshot;
 
-    public OrderBookService(DamlRepository damlRepository) {
+    public OrderBookService(DamlRepository damlRepository, PqsChangeWatcher changeWatcher, PqsConfig pqsConfig,
+                            OrderBookConfig orderBookConfig) {
         this.damlRepository = damlRepository;
+        this.pqsConfig = pqsConfig;
+        this.orderBookConfig = orderBookConfig;
+        changeWatcher.subscribe(LenderBid.class, delta -> apply(askTiers, delta));
+        changeWatcher.subscribe(BorrowerAsk.class, delta -> apply(bidTiers, delta));
     }
 
     public record Tier(BigDecimal interestRate, int duration, BigDecimal totalAmount, int orderCount) {}
 
     public record OrderBook(List<Tier> asks, List<Tier> bids, BigDecimal spread) {}
 
+    /**
+     * Order book at a given version. {@code etag} is null for books built directly from PQS,
+     * which carry no version.
+     */
+    public record Snapshot(long version, String etag, OrderBook orderBook) {}
+
+    /** The current order book snapshot, falling back to a direct PQS build while no snapshot is available. */
+    public CompletableFuture<Snapshot> currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null && pqsConfig.getChangeWatcher().isEnabled()) {
+            return CompletableFuture.completedFuture(current);
+        }
+        return buildOrderBook().thenApply(ob -> new Snapshot(-1, null, ob));
+    }
+
+    /**
+     * Register a listener for newly published snapshots. Listeners run on the PQS watcher thread
+     * and must not block.
+     */
+    public void addSnapshotListener(Consumer<Snapshot> listener) {
+        snapshotListeners.add(listener);
+    }
+
+    private synchronized <T extends Template> void apply(TierBook<T> side, PqsChangeWatcher.ContractDelta<T> delta) {
+        side.apply(delta);
+        if (!askTiers.loaded || !bidTiers.loaded) {
+            return;
+        }
+        version++;
+        List<Tier> asks = askTiers.tiers();
+        List<Tier> bids = bidTiers.tiers();
+        snapshot = new Snapshot(version, "\"ob-" + etagPrefix + "-" + version + "\"", new OrderBook(asks, bids, spread(asks, bids)));
+        logger.debug("[OrderBook] snapshot v{}: asks={} bids={}", version, asks.size(), bids.size());
+        for (var listener : snapshotListeners) {
+            listener.accept(snapshot);
+        }
+    }
+
+    private static BigDecimal spread(List<Tier> asks, List<Tier> bids) {
+        // Spread: lowest ask rate - highest bid rate
+        if (asks.isEmpty() || bids.isEmpty()) {
+            return null;
+        }
+        return asks.get(0).interestRate.subtract(bids.get(0).interestRate);
+    }
+
     /**
      * Build an aggregated order book from active MarketMaker orders.
      * Asks (LenderBids) are grouped by minInterestRate+maxDuration, sorted ascending by rate.
      * Bids (BorrowerAsks) are grouped by maxInterestRate+duration, sorted descending by rate.
+     * Both aggregations read payload fields with SQL casts; if that fails (e.g. a payload shape the casts do
+     * not expect), the book is built from decoded contracts instead.
      */
     public CompletableFuture<OrderBook> buildOrderBook() {
-        var bidsFuture = damlRepository.findActiveLenderBids();
-        var asksFuture = damlRepository.findActiveBorrowerAsks();
+        var aggregated = orderBookConfig.getAggregation() == OrderBookConfig.Aggregation.JAVA
+                ? buildOrderBookFromProjectedRows()
+                : buildOrderBookInSql();
+        return aggregated.exceptionallyCompose(ex -> {
+            logger.warn("[OrderBook] {} aggregation failed, falling back to decoded contracts: {}",
+                    orderBookConfig.getAggregation(), ex.getMessage());
+            return buildOrderBookFromContracts();
+        });
+    }
 
-        return bidsFuture.thenCombine(asksFuture, (lenderBids, borrowerAsks) -> {
-            logger.info("[OrderBook] building order book: lenderBids={} borrowerAsks={}", lenderBids.size(), borrowerAsks.size());
-            if (borrowerAsks.isEmpty()) {
+    private CompletableFuture<OrderBook> buildOrderBookInSql() {
+        var asksFuture = damlRepository.aggregateLenderBidTiers();
+        var bidsFuture = damlRepository.aggregateBorrowerAskTiers();
+        return asksFuture.thenCombine(bidsFuture, (askRows, bidRows) -> {
+            List<Tier> asks = askRows.stream().map(OrderBookService::toTier).toList();
+            List<Tier> bids = bidRows.stream().map(OrderBookService::toTier).toList();
+            return new OrderBook(asks, bids, spread(asks, bids));
+        });
+    }
+
+    private static Tier toTier(DamlRepository.OrderBookTierRow row) {
+        return new Tier(row.interestRate(), (int) row.duration(), row.totalAmount(), row.orderCount());
+    }
+
+    private CompletableFuture<OrderBook> buildOrderBookFromProjectedRows() {
+        // Each order's (rate, duration, amount) is projected in SQL and streamed from PQS, then folded into
+        // tiers one at a time; payloads are never decoded and only the tiers are kept in memory.
+        // Aggregate asks (LenderBids = lenders offering supply) by rate+duration
+        var askMap = new LinkedHashMap<String, Tier>();
+        var bidsFuture = damlRepository.forEachLenderBidLevel(
+                row -> mergeTier(askMap, row.interestRate(), row.duration(), row.amount()));
+        // Aggregate bids (BorrowerAsks = borrowers requesting demand) by rate+duration
+        var bidMap = new LinkedHashMap<String, Tier>();
+        var asksFuture = damlRepository.forEachBorrowerAskLevel(
+                row -> mergeTier(bidMap, row.interestRate(), row.duration(), row.amount()));
+
+        return bidsFuture.thenCombine(asksFuture, (lenderBidCount, borrowerAskCount) -> {
+            logger.info("[OrderBook] building order book: lenderBids={} borrowerAsks={}", lenderBidCount, borrowerAskCount);
+            if (borrowerAskCount == 0) {
                 logger.warn("[OrderBook] bids are empty (no BorrowerAsk contracts in PQS). " +
                         "If borrowers have placed asks, ensure BorrowerAsk is indexed: restart PQS (e.g. make restart-service SERVICE=pqs-app-provider).");
-            } else {
-                logger.info("[OrderBook] borrowerAsk sample: first contractId={}, amount={}, rate={}, duration={}",
-                        borrowerAsks.get(0).contractId.getContractId,
-                        borrowerAsks.get(0).payload.getAmount,
-                        borrowerAsks.get(0).payload.getMaxInterestRate,
-                        borrowerAsks.get(0).payload.getDuration);
             }
-            // Aggregate asks (LenderBids = lenders offering supply) by rate+duration
-            var askMap = new LinkedHashMap<String, Tier>();
-            for (var c : lenderBids) {
-                var p = c.payload;
-                String key = p.getMinInterestRate.toPlainString() + ":" + p.getMaxDuration;
-                askMap.merge(key,
-                        new Tier(p.getMinInterestRate, p.getMaxDuration.intValue(), p.getRemainingAmount, 1),
-                        (a, b) -> new Tier(a.interestRate, a.duration,
-                                a.totalAmount.add(b.totalAmount), a.orderCount + b.orderCount));
-            }
-            List<Tier> asks = new ArrayList<>(askMap.values());
-            asks.sort(Comparator.comparing(Tier::interestRate));
+            return toOrderBook(askMap, bidMap);
+        });
+    }
 
-            // Aggregate bids (BorrowerAsks = borrowers requesting demand) by rate+duration
+    private CompletableFuture<OrderBook> buildOrderBookFromContracts() {
+        // Decodes every LenderBid/BorrowerAsk through the transcode dictionary, so it does not depend on
+        // casting payload fields in SQL.
+        var bidsFuture = damlRepository.findActiveLenderBids();
+        var asksFuture = damlRepository.findActiveBorrowerAsks();
+        return bidsFuture.thenCombine(asksFuture, (lenderBids, borrowerAsks) -> {
+            var askMap = new LinkedHashMap<String, Tier>();
+            lenderBids.forEach(c -> mergeTier(askMap,
+                    c.payload.getMinInterestRate, c.payload.getMaxDuration, c.payload.getRemainingAmount));
             var bidMap = new LinkedHashMap<String, Tier>();
-            for (var c : borrowerAsks) {
-                var p = c.payload;
-                String key = p.getMaxInterestRate.toPlainString() + ":" + p.getDuration;
-                bidMap.merge(key,
-                        new Tier(p.getMaxInterestRate, p.getDuration.intValue(), p.getAmount, 1),
-                        (a, b) -> new Tier(a.interestRate, a.duration,
-                                a.totalAmount.add(b.totalAmount), a.orderCount + b.orderCount));
+            borrowerAsks.forEach(c -> mergeTier(bidMap,
+                    c.payload.getMaxInterestRate, c.payload.getDuration, c.payload.getAmount));
+            return toOrderBook(askMap, bidMap);
+        });
+    }
+
+    private static OrderBook toOrderBook(Map<String, Tier> askMap, Map<String, Tier> bidMap) {
+        List<Tier> asks = new ArrayList<>(askMap.values());
+        asks.sort(Comparator.comparing(Tier::interestRate));
+        List<Tier> bids = new ArrayList<>(bidMap.values());
+        bids.sort(Comparator.comparing(Tier::interestRate).reversed());
+        return new OrderBook(asks, bids, spread(asks, bids));
+    }
+
+    private static void mergeTier(Map<String, Tier> tiers, BigDecimal rate, Long duration, BigDecimal amount) {
+        String key = rate.toPlainString() + ":" + duration;
+        tiers.merge(key,
+                new Tier(rate, duration.intValue(), amount, 1),
+                (a, b) -> new Tier(a.interestRate, a.duration,
+                        a.totalAmount.add(b.totalAmount), a.orderCount + b.orderCount));
+    }
+
+    /**
+     * Running (rate, duration) aggregates of one side of the book. Each contract's contribution is
+     * remembered so that an archival, which only carries the contract id, can be subtracted again.
+     * Levels are compared numerically, so rates differing only in scale share a tier.
+     */
+    private static final class TierBook<T extends Template> {
+        private record Key(BigDecimal rate, long duration) {}
+
+        private record Contribution(Key key, BigDecimal amount) {}
+
+        private static final class Level {
+            BigDecimal totalAmount = BigDecimal.ZERO;
+            int orderCount;
+        }
+
+        private final NavigableMap<Key, Level> levels;
+        private final Map<String, Contribution> contributions = new HashMap<>();
+        private final Function<Contract<T>, BigDecimal> rate;
+        private final Function<Contract<T>, Long> duration;
+        private final Function<Contract<T>, BigDecimal> amount;
+        private boolean loaded;
+
+        TierBook(Comparator<BigDecimal> rateOrder,
+                 Function<Contract<T>, BigDecimal> rate,
+                 Function<Contract<T>, Long> duration,
+                 Function<Contract<T>, BigDecimal> amount) {
+            this.levels = new TreeMap<>(Comparator.comparing(Key::rate, rateOrder).thenComparingLong(Key::duration));
+            this.rate = rate;
+            this.duration = duration;
+            this.amount = amount;
+        }
+
+        void apply(PqsChangeWatcher.ContractDelta<T> delta) {
+            if (delta.initial()) {
+                levels.clear();
+                contributions.clear();
+            }
+            for (String id : delta.archived()) {
+                Contribution c = contributions.remove(id);
+                if (c == null) {
+                    continue;
+                }
+                Level level = levels.get(c.key());
+                level.totalAmount = level.totalAmount.subtract(c.amount());
+                if (--level.orderCount == 0) {
+                    levels.remove(c.key());
+                }
             }
-            List<Tier> bids = new ArrayList<>(bidMap.values());
-            bids.sort(Comparator.comparing(Tier::interestRate).reversed());
-
-            // Calculate spread: lowest ask rate - highest bid rate
-            BigDecimal spread = null;
-            if (!asks.isEmpty() && !bids.isEmpty()) {
-                BigDecimal lowestAsk = asks.get(0).interestRate;
-                BigDecimal highestBid = bids.get(0).interestRate;
-                spread = lowestAsk.subtract(highestBid);
+            for (Contract<T> contract : delta.created()) {
+                String id = contract.contractId.getContractId;
+                if (contributions.containsKey(id)) {
+                    continue;
+                }
+                var c = new Contribution(new Key(rate.apply(contract), duration.apply(contract)), amount.apply(contract));
+                contributions.put(id, c);
+                Level level = levels.computeIfAbsent(c.key(), k -> new Level());
+                level.totalAmount = level.totalAmount.add(c.amount());
+                level.orderCount++;
             }
+            loaded = true;
+        }
 
-            return new OrderBook(asks, bids, spread);
-        });
+        List<Tier> tiers() {
+            List<Tier> tiers = new ArrayList<>(levels.size());
+            levels.forEach((key, level) ->
+                    tiers.add(new Tier(key.rate(), (int) key.duration(), level.totalAmount, level.orderCount)));
+            return List.copyOf(tiers);
+        }
     }
 }
@@ -0,0 +1,249 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.service;
+
+import com.digitalasset.quickstart.config.OrderBookConfig;
+import com.digitalasset.quickstart.config.PqsConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.openapitools.model.OrderBookTier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes order book changes to server-sent event subscribers.
+ *
+ * <p>A new subscriber first receives a {@code snapshot} event (the full {@code OrderBookResponse}), then
+ * {@code delta} events holding only the tiers that changed since the last event it received; a tier with
+ * {@code orderCount} 0 has been removed. The event id is the snapshot version.
+ *
+ * <p>Snapshots come from {@link OrderBookService} as the change watcher publishes them. With
+ * {@code pqs.change-watcher.enabled=false} nothing is published, so while anyone is subscribed the book is
+ * rebuilt from PQS every {@code order-book.stream.rebuild-interval-ms} instead.
+ *
+ * <p>Events are written on a small sender pool and never queue up per subscriber: a subscriber that is
+ * still busy receiving an event gets a single delta against the newest snapshot once it is done.
+ */
+@Component
+public class OrderBookStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderBookStream.class);
+
+    /** Tier changes on both sides since the previous event, plus the current spread. */
+    public record OrderBookDelta(List<OrderBookTier> asks, List<OrderBookTier> bids, BigDecimal spread) {
+    }
+
+    private static final Comparator<OrderBookService.Tier> TIER_KEY =
+            Comparator.comparing(OrderBookService.Tier::interestRate).thenComparingInt(OrderBookService.Tier::duration);
+
+    private final OrderBookService orderBookService;
+    private final OrderBookConfig.Stream config;
+    private final PqsConfig pqsConfig;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sender;
+
+    public OrderBookStream(OrderBookService orderBookService, OrderBookConfig orderBookConfig, PqsConfig pqsConfig,
+                           MeterRegistry meterRegistry) {
+        this.orderBookService = orderBookService;
+        this.config = orderBookConfig.getStream();
+        this.pqsConfig = pqsConfig;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(Math.max(1, config.getSenderThreads()), r -> {
+            Thread thread = new Thread(r, "orderbook-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("orderbook.stream.subscribers", subscribers, Set::size)
+                .description("Open order book event streams")
+                .register(meterRegistry);
+        orderBookService.addSnapshotListener(this::publish);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::close);
+        sender.shutdownNow();
+    }
+
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= config.getMaxSubscribers()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many order book subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(config.getTimeoutMs());
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        orderBookService.currentSnapshot()
+                .thenAccept(subscriber::offer)
+                .exceptionally(e -> {
+                    logger.warn("[OrderBookStream] failed to load initial snapshot: {}", e.getMessage());
+                    subscriber.close();
+                    return null;
+                });
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${order-book.stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        subscribers.forEach(Subscriber::requestHeartbeat);
+    }
+
+    /** Without change notifications no snapshot is ever published; poll PQS for subscribers instead. */
+    @Scheduled(fixedDelayString = "${order-book.stream.rebuild-interval-ms:5000}")
+    public void rebuildWithoutWatcher() {
+        if (pqsConfig.getChangeWatcher().isEnabled() || subscribers.isEmpty() || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        orderBookService.currentSnapshot()
+                .thenAccept(this::publish)
+                .whenComplete((v, e) -> {
+                    if (e != null) {
+                        logger.warn("[OrderBookStream] rebuilding the order book failed: {}", e.getMessage());
+                    }
+                    rebuilding.set(false);
+                });
+    }
+
+    private void publish(OrderBookService.Snapshot snapshot) {
+        subscribers.forEach(s -> s.offer(snapshot));
+    }
+
+    private static List<OrderBookTier> diff(List<OrderBookService.Tier> before, List<OrderBookService.Tier> after) {
+        Map<OrderBookService.Tier, OrderBookService.Tier> previous = new TreeMap<>(TIER_KEY);
+        before.forEach(t -> previous.put(t, t));
+        List<OrderBookTier> changes = new ArrayList<>();
+        for (var tier : after) {
+            var old = previous.remove(tier);
+            if (old == null
+                    || old.totalAmount().compareTo(tier.totalAmount()) != 0
+                    || old.orderCount() != tier.orderCount()) {
+                changes.add(OrderBookApiImpl.toApi(tier));
+            }
+        }
+        for (var removed : previous.values()) {
+            changes.add(OrderBookApiImpl.toApi(
+                    new OrderBookService.Tier(removed.interestRate(), removed.duration(), BigDecimal.ZERO, 0)));
+        }
+        return changes;
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicReference<OrderBookService.Snapshot> latest = new AtomicReference<>();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile OrderBookService.Snapshot sent;
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(OrderBookService.Snapshot snapshot) {
+            // Only ever move forward; an unversioned (direct PQS) book never replaces a published snapshot.
+            latest.accumulateAndGet(snapshot, (cur, next) -> cur == null || next.version() >= cur.version() ? next : cur);
+            schedule();
+        }
+
+        void requestHeartbeat() {
+            heartbeatDue.set(true);
+            schedule();
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            try {
+                emitter.complete();
+            } catch (Exception e) {
+                logger.debug("[OrderBookStream] closing subscriber: {}", e.getMessage());
+            }
+        }
+
+        private boolean hasWork() {
+            var next = latest.get();
+            return (next != null && next != sent) || heartbeatDue.get();
+        }
+
+        private void schedule() {
+            if (closed || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!closed) {
+                    var next = latest.get();
+                    if (next != null && next != sent) {
+                        send(next);
+                        sent = next;
+                    } else if (heartbeatDue.getAndSet(false)) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        break;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("[OrderBookStream] subscriber went away: {}", e.getMessage());
+                close();
+            } finally {
+                scheduled.set(false);
+            }
+            // An offer may have arrived after the loop exited but before the flag was cleared.
+            if (hasWork()) {
+                schedule();
+            }
+        }
+
+        private void send(OrderBookService.Snapshot next) throws IOException {
+            var event = SseEmitter.event();
+            if (next.version() >= 0) {
+                event.id(Long.toString(next.version()));
+            }
+            if (sent == null) {
+                emitter.send(event.name("snapshot").data(OrderBookApiImpl.toResponse(next.orderBook()), MediaType.APPLICATION_JSON));
+                return;
+            }
+            var before = sent.orderBook();
+            var after = next.orderBook();
+            var delta = new OrderBookDelta(diff(before.asks(), after.asks()), diff(before.bids(), after.bids()), after.spread());
+            if (delta.asks().isEmpty() && delta.bids().isEmpty() && Objects.equals(before.spread(), after.spread())) {
+                return;
+            }
+            emitter.send(event.name("delta").data(delta, MediaType.APPLICATION_JSON));
+        }
+    }
+}
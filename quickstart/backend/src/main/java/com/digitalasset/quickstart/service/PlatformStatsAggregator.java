@@ -0,0 +1,145 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.service;
+
+import com.digitalasset.quickstart.config.PqsConfig;
+import com.digitalasset.quickstart.pqs.Contract;
+import com.digitalasset.quickstart.pqs.PqsChangeWatcher;
+import com.digitalasset.quickstart.repository.DamlRepository;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.stereotype.Component;
+import quickstart_licensing.loan.loan.Loan;
+
+/**
+ * Platform-wide loan statistics, maintained incrementally from {@link PqsChangeWatcher} Loan deltas so that
+ * reading them is O(1).
+ *
+ * <p>Sums are exact {@link BigDecimal}s. Distinct lender/borrower counts are kept as per-party reference counts
+ * over active loans, so an archival only decrements the parties of that one loan.
+ */
+@Component
+public class PlatformStatsAggregator {
+
+    public record PlatformStats(
+            BigDecimal totalValueLocked,
+            int totalLoans,
+            int activeLoans,
+            BigDecimal averageInterestRate,
+            int totalLenders,
+            int totalBorrowers) {
+    }
+
+    private final PqsConfig pqsConfig;
+    private final DamlRepository damlRepository;
+    private final Accumulator live = new Accumulator();
+    private volatile PlatformStats current;
+
+    public PlatformStatsAggregator(PqsChangeWatcher changeWatcher, PqsConfig pqsConfig, DamlRepository damlRepository) {
+        this.pqsConfig = pqsConfig;
+        this.damlRepository = damlRepository;
+        changeWatcher.subscribe(Loan.class, this::apply);
+    }
+
+    /** Current statistics, or empty until the Loan active set has been loaded (or if the change watcher is disabled). */
+    public Optional<PlatformStats> current() {
+        return pqsConfig.getChangeWatcher().isEnabled() ? Optional.ofNullable(current) : Optional.empty();
+    }
+
+    /**
+     * The current statistics, or (before the Loan active set has loaded, or with the change watcher disabled)
+     * statistics computed by streaming the relevant fields of all active Loan contracts from PQS.
+     */
+    public CompletableFuture<PlatformStats> currentOrScan() {
+        return current()
+                .map(CompletableFuture::completedFuture)
+                .orElseGet(() -> {
+                    Accumulator acc = new Accumulator();
+                    return damlRepository.forEachActiveLoanStats(acc::add).thenApply(n -> acc.toStats());
+                });
+    }
+
+    private synchronized void apply(PqsChangeWatcher.ContractDelta<Loan> delta) {
+        if (delta.initial()) {
+            live.clear();
+        }
+        delta.archived().forEach(live::remove);
+        delta.created().forEach(live::add);
+        current = live.toStats();
+    }
+
+    private static final class Accumulator {
+        private record Entry(boolean active, BigDecimal principal, BigDecimal interestRate, String lender, String borrower) {
+        }
+
+        private final Map<String, Entry> loans = new HashMap<>();
+        private final Map<String, Integer> lenders = new HashMap<>();
+        private final Map<String, Integer> borrowers = new HashMap<>();
+        private BigDecimal totalValueLocked = BigDecimal.ZERO;
+        private BigDecimal rateSum = BigDecimal.ZERO;
+        private int activeCount;
+
+        void clear() {
+            loans.clear();
+            lenders.clear();
+            borrowers.clear();
+            totalValueLocked = BigDecimal.ZERO;
+            rateSum = BigDecimal.ZERO;
+            activeCount = 0;
+        }
+
+        void add(Contract<Loan> c) {
+            String id = c.contractId.getContractId;
+            if (loans.containsKey(id)) {
+                return;
+            }
+            var p = c.payload;
+            var status = p.getStatus;
+            add(id, new Entry(status == null || status.toString().equals("Active"),
+                    p.getPrincipal, p.getInterestRate, p.getLender.getParty, p.getBorrower.getParty));
+        }
+
+        void add(DamlRepository.LoanStatsRow row) {
+            if (loans.containsKey(row.contractId())) {
+                return;
+            }
+            add(row.contractId(), new Entry(row.active(), row.principal(), row.interestRate(), row.lender(), row.borrower()));
+        }
+
+        private void add(String id, Entry entry) {
+            loans.put(id, entry);
+            if (entry.active()) {
+                totalValueLocked = totalValueLocked.add(entry.principal());
+                rateSum = rateSum.add(entry.interestRate());
+                activeCount++;
+                lenders.merge(entry.lender(), 1, Integer::sum);
+                borrowers.merge(entry.borrower(), 1, Integer::sum);
+            }
+        }
+
+        void remove(String contractId) {
+            Entry entry = loans.remove(contractId);
+            if (entry == null || !entry.active()) {
+                return;
+            }
+            totalValueLocked = totalValueLocked.subtract(entry.principal());
+            rateSum = rateSum.subtract(entry.interestRate());
+            activeCount--;
+            lenders.computeIfPresent(entry.lender(), (party, n) -> n == 1 ? null : n - 1);
+            borrowers.computeIfPresent(entry.borrower(), (party, n) -> n == 1 ? null : n - 1);
+        }
+
+        PlatformStats toStats() {
+            BigDecimal averageRate = activeCount == 0
+                    ? BigDecimal.ZERO
+                    : rateSum.divide(BigDecimal.valueOf(activeCount), MathContext.DECIMAL64);
+            return new PlatformStats(totalValueLocked, loans.size(), activeCount, averageRate,
+                    lenders.size(), borrowers.size());
+        }
+    }
+}
@@ -1,19 +1,55 @@
 package com.digitalasset.quickstart.service;
 
+import com.digitalasset.quickstart.config.PaginationConfig;
+import com.digitalasset.quickstart.pqs.Page;
+import com.digitalasset.quickstart.pqs.PageRequest;
 import com.digitalasset.quickstart.utility.TracingUtils;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 class ServiceUtils {
 
+    /** Response header carrying the cursor of the next page of a paginated list; absent on the last page. */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     static <T> T ensurePresent(Optional<T> opt, String message, Object... args) {
         return opt.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, String.format(message, args)));
     }
 
+    /**
+     * Page request from the {@code limit} and {@code cursor} query parameters; invalid values are a 400.
+     * Callers that send neither get the whole listing, as before the endpoints were paginated.
+     */
+    static PageRequest pageRequest(PaginationConfig config, Integer limit, String cursor) {
+        if (limit != null && limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        if (limit == null && (cursor == null || cursor.isBlank())) {
+            return PageRequest.unpaged();
+        }
+        int effectiveLimit = Math.min(limit != null ? limit : config.getDefaultLimit(), config.getMaxLimit());
+        try {
+            return PageRequest.of(effectiveLimit, cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    /** 200 response with the page's items as body and its next cursor, if any, in {@link #NEXT_CURSOR_HEADER}. */
+    static <T> ResponseEntity<List<T>> pageResponse(Page<T> page) {
+        var builder = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return builder.body(page.items());
+    }
+
     /**
      * Wraps a CompletableFuture with tracing, ensuring that any exceptions are properly propagated.
      * To be used exclusively inside the service API implementations.
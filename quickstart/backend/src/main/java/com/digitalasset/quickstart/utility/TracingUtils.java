@@ -10,6 +10,8 @@ import io.opentelemetry.api.trace.StatusCode;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Supplier;
 
 import jakarta.validation.constraints.NotNull;
@@ -281,6 +283,25 @@ public final class TracingUtils {
         ).thenCompose(f -> f);
     }
 
+    /**
+     * Like {@link #runAndTraceAsync(TracingContext, Supplier)} but runs the blocking body on the given executor.
+     * If the executor rejects the task, the returned future fails with the rejection exception.
+     */
+    public static <T> CompletableFuture<T> runAndTraceAsync(
+            TracingUtils.TracingContext ctx,
+            Supplier<T> body,
+            Executor executor) {
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> _trace(ctx, false, () -> CompletableFuture.completedFuture(body.get())),
+                    executor
+            ).thenCompose(f -> f);
+        } catch (RejectedExecutionException e) {
+            logError(ctx.logger(), ctx.message() + " rejected", ctx.attrs(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
     private static <T> CompletableFuture<T> _trace(
             TracingUtils.TracingContext ctx,
             boolean startEvent,
@@ -0,0 +1,145 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.ledger;
+
+import com.daml.ledger.api.v2.CommandServiceOuterClass;
+import com.daml.ledger.api.v2.CommandsOuterClass;
+import com.daml.ledger.api.v2.TransactionFilterOuterClass;
+import com.daml.ledger.api.v2.ValueOuterClass;
+import com.digitalasset.transcode.Converter;
+import com.digitalasset.transcode.codec.proto.ProtobufCodec;
+import com.digitalasset.transcode.java.ContractId;
+import com.digitalasset.transcode.java.Party;
+import com.digitalasset.transcode.java.Utils;
+import com.digitalasset.transcode.schema.Dictionary;
+import com.digitalasset.transcode.schema.Identifier;
+import daml.Daml;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import quickstart_licensing.loan.marketmaker.LenderBid;
+import quickstart_licensing.loan.marketmaker.MatchingEngine;
+
+/**
+ * Builds complete submit requests for a create (LenderBid) and an exercise (MatchingEngine.MatchOrders), once
+ * through {@link CommandDescriptors} and once the way LedgerApi did before it: converter lookups through the
+ * transcode dictionaries, a fresh protobuf Identifier and a fresh TransactionFormat per request.
+ *
+ * <p>{@code ./gradlew :backend:jmh -Pjmh=CommandConstruction}; add {@code -prof gc} to the JMH arguments for
+ * bytes allocated per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandConstructionBenchmark {
+
+    private static final String PARTY = "platform::1220";
+
+    private Dictionary<Converter<Object, ValueOuterClass.Value>> dto2Proto;
+    private CommandDescriptors descriptors;
+    private LenderBid bid;
+    private ContractId<MatchingEngine> engine;
+    private MatchingEngine.MatchOrders matchOrders;
+
+    @Setup
+    public void setUp() {
+        ProtobufCodec protoCodec = new ProtobufCodec();
+        dto2Proto = Utils.getConverters(Daml.ENTITIES, protoCodec);
+        descriptors = new CommandDescriptors(dto2Proto, Utils.getConverters(protoCodec, Daml.ENTITIES));
+        bid = new LenderBid(new Party("lender::1220"), new Party(PARTY), new BigDecimal("1000.0"),
+                new BigDecimal("1000.0"), new BigDecimal("0.05"), 30L, Instant.parse("2026-01-01T00:00:00Z"));
+        engine = new ContractId<>("00engine");
+        matchOrders = new MatchingEngine.MatchOrders(new ContractId<>("00bid"), new ContractId<>("00ask"));
+    }
+
+    @Benchmark
+    public CommandServiceOuterClass.SubmitAndWaitRequest createWithDescriptors() {
+        var template = descriptors.template(bid.templateId());
+        var command = CommandsOuterClass.Command.newBuilder();
+        command.getCreateBuilder()
+                .setTemplateId(template.templateId())
+                .setCreateArguments(template.payload().convert(bid).getRecord());
+        return CommandServiceOuterClass.SubmitAndWaitRequest.newBuilder()
+                .setCommands(commands("create").addCommands(command.build()))
+                .build();
+    }
+
+    @Benchmark
+    public CommandServiceOuterClass.SubmitAndWaitRequest createUncached() {
+        var command = CommandsOuterClass.Command.newBuilder();
+        command.getCreateBuilder()
+                .setTemplateId(identifier(bid.templateId()))
+                .setCreateArguments(dto2Proto.template(bid.templateId()).convert(bid).getRecord());
+        return CommandServiceOuterClass.SubmitAndWaitRequest.newBuilder()
+                .setCommands(commands("create").addCommands(command.build()))
+                .build();
+    }
+
+    @Benchmark
+    public CommandServiceOuterClass.SubmitAndWaitForTransactionRequest exerciseWithDescriptors() {
+        var descriptor = descriptors.choice(matchOrders.templateId(), matchOrders.choiceName());
+        var command = CommandsOuterClass.Command.newBuilder();
+        command.getExerciseBuilder()
+                .setTemplateId(descriptor.templateId())
+                .setContractId(engine.getContractId)
+                .setChoice(descriptor.choiceName())
+                .setChoiceArgument(descriptor.argument().convert(matchOrders));
+        return CommandServiceOuterClass.SubmitAndWaitForTransactionRequest.newBuilder()
+                .setCommands(commands("exercise").addCommands(command.build()))
+                .setTransactionFormat(descriptors.transactionFormat(PARTY, ResultProjection.TRANSACTION,
+                        Set.of(matchOrders.templateId())))
+                .build();
+    }
+
+    @Benchmark
+    public CommandServiceOuterClass.SubmitAndWaitForTransactionRequest exerciseUncached() {
+        var command = CommandsOuterClass.Command.newBuilder();
+        command.getExerciseBuilder()
+                .setTemplateId(identifier(matchOrders.templateId()))
+                .setContractId(engine.getContractId)
+                .setChoice(matchOrders.choiceName())
+                .setChoiceArgument(dto2Proto.choiceArgument(matchOrders.templateId(), matchOrders.choiceName())
+                        .convert(matchOrders));
+        var eventFormat = TransactionFilterOuterClass.EventFormat.newBuilder()
+                .putFiltersByParty(PARTY, TransactionFilterOuterClass.Filters.newBuilder().build())
+                .build();
+        var transactionFormat = TransactionFilterOuterClass.TransactionFormat.newBuilder()
+                .setEventFormat(eventFormat)
+                .setTransactionShape(TransactionFilterOuterClass.TransactionShape.TRANSACTION_SHAPE_LEDGER_EFFECTS)
+                .build();
+        return CommandServiceOuterClass.SubmitAndWaitForTransactionRequest.newBuilder()
+                .setCommands(commands("exercise").addCommands(command.build()))
+                .setTransactionFormat(transactionFormat)
+                .build();
+    }
+
+    private static CommandsOuterClass.Commands.Builder commands(String commandId) {
+        return CommandsOuterClass.Commands.newBuilder()
+                .setCommandId(commandId)
+                .addActAs(PARTY)
+                .addReadAs(PARTY);
+    }
+
+    private static ValueOuterClass.Identifier identifier(Identifier id) {
+        return ValueOuterClass.Identifier.newBuilder()
+                .setPackageId(id.packageNameAsPackageId())
+                .setModuleName(id.moduleName())
+                .setEntityName(id.entityName())
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.pqs;
+
+import com.digitalasset.quickstart.config.PqsConfig;
+import com.digitalasset.quickstart.repository.DamlRepository;
+import com.digitalasset.transcode.java.Template;
+import com.digitalasset.transcode.java.Utils;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Scratch PQS for JMH benchmarks: a {@code lending_bench} schema in the Postgres given by {@code BENCH_JDBC_URL}
+ * (plus {@code BENCH_JDBC_USER} / {@code BENCH_JDBC_PASSWORD}), holding a contract table and an {@code active(text)}
+ * function with the {@code contract_id, payload} columns the backend reads. The schema is dropped and recreated
+ * on open, so point it at a scratch database, never at a live PQS.
+ */
+public final class BenchmarkPqs implements AutoCloseable {
+
+    public static final String SCHEMA = "lending_bench";
+
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final PqsConfig pqsConfig = new PqsConfig();
+    private final PqsQueryExecutor executor;
+    private final Pqs pqs;
+
+    private BenchmarkPqs(HikariDataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        pqsConfig.getChangeWatcher().setEnabled(false);
+        var meterRegistry = new SimpleMeterRegistry();
+        this.executor = new PqsQueryExecutor(pqsConfig, meterRegistry);
+        this.pqs = new Pqs(jdbcTemplate, executor, pqsConfig);
+    }
+
+    public static BenchmarkPqs open() {
+        String url = System.getenv("BENCH_JDBC_URL");
+        if (url == null || url.isBlank()) {
+            throw new IllegalStateException("Set BENCH_JDBC_URL (e.g. jdbc:postgresql://localhost:5432/bench) to a scratch database");
+        }
+        try (var admin = dataSource(url, null)) {
+            var jdbc = new JdbcTemplate(admin);
+            jdbc.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            jdbc.execute("CREATE SCHEMA " + SCHEMA);
+            jdbc.execute("CREATE TABLE " + SCHEMA + ".contracts (template_id text NOT NULL, contract_id text PRIMARY KEY, payload jsonb NOT NULL)");
+            jdbc.execute("CREATE INDEX ON " + SCHEMA + ".contracts (template_id)");
+            jdbc.execute("CREATE FUNCTION " + SCHEMA + ".active(text) RETURNS TABLE (contract_id text, payload jsonb)"
+                    + " LANGUAGE sql STABLE AS $$ SELECT contract_id, payload FROM " + SCHEMA + ".contracts WHERE template_id = $1 $$");
+        }
+        return new BenchmarkPqs(dataSource(url, SCHEMA));
+    }
+
+    /** Inserts {@code count} contracts of the template, with payload JSON (in PQS encoding) produced per index. */
+    public void insert(Class<? extends Template> clazz, int count, IntFunction<String> payload) {
+        String templateId = Utils.getTemplateIdByClass(clazz).qualifiedName();
+        String prefix = clazz.getSimpleName().toLowerCase();
+        List<Object[]> batch = new ArrayList<>(1000);
+        for (int i = 0; i < count; i++) {
+            batch.add(new Object[]{templateId, String.format("00%s%08x", prefix, i), payload.apply(i)});
+            if (batch.size() == 1000 || i == count - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO contracts (template_id, contract_id, payload) VALUES (?, ?, ?::jsonb)", batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.execute("ANALYZE contracts");
+    }
+
+    public Pqs pqs() {
+        return pqs;
+    }
+
+    public PqsConfig pqsConfig() {
+        return pqsConfig;
+    }
+
+    public PqsChangeWatcher changeWatcher() {
+        return new PqsChangeWatcher(pqs, pqsConfig);
+    }
+
+    public DamlRepository repository() {
+        var watcher = changeWatcher();
+        var cache = new ContractCache(pqs, watcher, pqsConfig, new SimpleMeterRegistry());
+        return new DamlRepository(pqs, cache, new ContractIdSuffixIndex(pqs, watcher, pqsConfig));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        dataSource.close();
+    }
+
+    private static HikariDataSource dataSource(String url, String schema) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("bench");
+        config.setJdbcUrl(url);
+        config.setUsername(System.getenv("BENCH_JDBC_USER"));
+        config.setPassword(System.getenv("BENCH_JDBC_PASSWORD"));
+        config.setMaximumPoolSize(4);
+        if (schema != null) {
+            config.setSchema(schema);
+        }
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,82 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.repository;
+
+import com.digitalasset.quickstart.pqs.BenchmarkPqs;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import quickstart_licensing.loan.loan.Loan;
+
+/**
+ * Sums the principal of the active loans in a PQS holding {@code loans} Loan contracts, once through the projected
+ * scan the platform statistics use ({@link DamlRepository#forEachActiveLoanStats}) and once by decoding every
+ * payload into a Loan DTO ({@link DamlRepository#findAllActiveLoans}), as the statistics did before.
+ *
+ * <p>Needs a scratch Postgres, see {@link BenchmarkPqs}:
+ * {@code BENCH_JDBC_URL=jdbc:postgresql://localhost:5432/bench ./gradlew :backend:jmh -Pjmh=LoanScan}; add
+ * {@code -prof gc} to the JMH arguments for bytes allocated per scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoanScanBenchmark {
+
+    @Param({"10000", "100000"})
+    int loans;
+
+    private BenchmarkPqs db;
+    private DamlRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        db = BenchmarkPqs.open();
+        db.insert(Loan.class, loans, i -> """
+                {"lender":"lender-%d::1220","borrower":"borrower-%d::1220","principal":"%d.0",\
+                "interestRate":"0.%03d","dueDate":"2027-01-01T00:00:00Z","creditProfileId":"00profile%08x",\
+                "status":"%s"}"""
+                .formatted(i % 500, i % 700, 100 + i % 900, 40 + i % 25, i, i % 10 == 0 ? "Repaid" : "Active"));
+        repository = db.repository();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public BigDecimal projectedScan() {
+        var total = new AtomicReference<>(BigDecimal.ZERO);
+        repository.forEachActiveLoanStats(row -> {
+            if (row.active()) {
+                total.accumulateAndGet(row.principal(), BigDecimal::add);
+            }
+        }).join();
+        return total.get();
+    }
+
+    @Benchmark
+    public BigDecimal decodedScan() {
+        return repository.findAllActiveLoans().join().stream()
+                .filter(c -> "Active".equals(c.payload.getStatus.toString()))
+                .map(c -> c.payload.getPrincipal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -0,0 +1,150 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.service;
+
+import static com.digitalasset.quickstart.service.OrderFixtures.PLATFORM;
+import static com.digitalasset.quickstart.service.OrderFixtures.ask;
+import static com.digitalasset.quickstart.service.OrderFixtures.bid;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.daml.ledger.api.v2.CompletionOuterClass;
+import com.digitalasset.quickstart.config.MarketMakerConfig;
+import com.digitalasset.quickstart.config.PqsConfig;
+import com.digitalasset.quickstart.ledger.LedgerApi;
+import com.digitalasset.quickstart.pqs.Contract;
+import com.digitalasset.quickstart.pqs.PqsChangeWatcher;
+import com.digitalasset.quickstart.pqs.PqsChangeWatcher.ContractDelta;
+import com.digitalasset.quickstart.repository.DamlRepository;
+import com.digitalasset.quickstart.security.AuthUtils;
+import com.digitalasset.transcode.java.ContractId;
+import com.digitalasset.transcode.java.Party;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import quickstart_licensing.loan.marketmaker.BorrowerAsk;
+import quickstart_licensing.loan.marketmaker.LenderBid;
+import quickstart_licensing.loan.marketmaker.MatchingEngine;
+
+class MarketMakerServiceTest {
+
+    private static final CompletableFuture<CompletionOuterClass.Completion> ACCEPTED =
+            CompletableFuture.completedFuture(CompletionOuterClass.Completion.getDefaultInstance());
+
+    private final DamlRepository damlRepository = mock(DamlRepository.class);
+    private final LedgerApi ledger = mock(LedgerApi.class);
+    private final AuthUtils auth = mock(AuthUtils.class);
+    private final PqsChangeWatcher changeWatcher = mock(PqsChangeWatcher.class);
+    private MarketMakerService service;
+    private Consumer<ContractDelta<LenderBid>> bidListener;
+    private Consumer<ContractDelta<BorrowerAsk>> askListener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(auth.getAppProviderPartyId()).thenReturn(PLATFORM);
+        var engine = new Contract<>(new ContractId<MatchingEngine>("engine"), new MatchingEngine(new Party(PLATFORM)));
+        when(damlRepository.findMatchingEngine(PLATFORM)).thenReturn(CompletableFuture.completedFuture(Optional.of(engine)));
+
+        service = new MarketMakerService(damlRepository, ledger, auth, changeWatcher, new PqsConfig(),
+                new MarketMakerConfig(), new SimpleMeterRegistry());
+
+        ArgumentCaptor<Consumer<ContractDelta<LenderBid>>> bids = ArgumentCaptor.forClass(Consumer.class);
+        ArgumentCaptor<Consumer<ContractDelta<BorrowerAsk>>> asks = ArgumentCaptor.forClass(Consumer.class);
+        verify(changeWatcher).subscribe(eq(LenderBid.class), bids.capture());
+        verify(changeWatcher).subscribe(eq(BorrowerAsk.class), asks.capture());
+        bidListener = bids.getValue();
+        askListener = asks.getValue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void matchesOfOneBidStayInOneBatch() {
+        var b1 = bid("b1", "0.05", 30, "100", 1);
+        var b2 = bid("b2", "0.05", 30, "100", 2);
+        var b3 = bid("b3", "0.05", 30, "100", 3);
+        var plan = List.of(
+                match(b1, "a1"), match(b1, "a2"), match(b1, "a3"),
+                match(b2, "a4"),
+                match(b3, "a5"), match(b3, "a6"));
+
+        var batches = MarketMakerService.toBatches(plan, 3);
+
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(0)).containsExactly(plan.subList(0, 3));
+        assertThat(batches.get(1)).containsExactly(plan.subList(3, 4), plan.subList(4, 6));
+    }
+
+    @Test
+    void bidWithMoreMatchesThanTheBatchSizeFormsItsOwnBatch() {
+        var b1 = bid("b1", "0.05", 30, "100", 1);
+        var b2 = bid("b2", "0.05", 30, "100", 2);
+        var plan = List.of(match(b2, "a0"), match(b1, "a1"), match(b1, "a2"), match(b1, "a3"));
+
+        var batches = MarketMakerService.toBatches(plan, 2);
+
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(0)).containsExactly(plan.subList(0, 1));
+        assertThat(batches.get(1)).containsExactly(plan.subList(1, 4));
+    }
+
+    @Test
+    void rejectedBatchIsHalvedAndOnlyTheFailingMatchIsReleased() {
+        bidListener.accept(new ContractDelta<>(LenderBid.class,
+                List.of(bid("b1", "0.05", 30, "100", 1), bid("b2", "0.05", 30, "100", 2)), Set.of(), true));
+        askListener.accept(new ContractDelta<>(BorrowerAsk.class,
+                List.of(ask("a1", "0.06", 30, "100", 1), ask("a2", "0.06", 30, "100", 2)), Set.of(), true));
+        // The batch of both pairs is rejected, then b1>a1 on its own succeeds and b2>a2 is rejected again.
+        when(ledger.submitAndTrack(anyList(), anyString(), anyString())).thenReturn(
+                CompletableFuture.failedFuture(new RuntimeException("CONTRACT_NOT_ACTIVE")),
+                ACCEPTED,
+                CompletableFuture.failedFuture(new RuntimeException("CONTRACT_NOT_ACTIVE")),
+                ACCEPTED);
+
+        assertThat(service.runMatchingCycle()).isEqualTo(1);
+        verify(ledger, times(3)).submitAndTrack(anyList(), anyString(), anyString());
+
+        // b1 and a1 stay reserved until PQS archives them; the released pair is planned again.
+        assertThat(service.runMatchingCycle()).isEqualTo(1);
+        verify(ledger, times(4)).submitAndTrack(anyList(), anyString(), anyString());
+        assertThat(service.runMatchingCycle()).isZero();
+    }
+
+    @Test
+    void failedSingleMatchIsRetriedInTheNextCycle() {
+        bidListener.accept(new ContractDelta<>(LenderBid.class,
+                List.of(bid("b", "0.05", 30, "100", 1)), Set.of(), true));
+        askListener.accept(new ContractDelta<>(BorrowerAsk.class,
+                List.of(ask("a", "0.06", 30, "100", 1)), Set.of(), true));
+        when(ledger.submitAndTrack(anyList(), anyString(), anyString())).thenReturn(
+                CompletableFuture.failedFuture(new RuntimeException("UNAVAILABLE")),
+                ACCEPTED);
+
+        assertThat(service.runMatchingCycle()).isZero();
+        assertThat(service.runMatchingCycle()).isEqualTo(1);
+        verify(ledger, times(2)).submitAndTrack(anyList(), anyString(), any());
+    }
+
+    private static OrderBookIndex.Match match(Contract<LenderBid> bid, String askId) {
+        return new OrderBookIndex.Match(bid, ask(askId, "0.06", 30, "10", 1));
+    }
+}
@@ -0,0 +1,102 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.service;
+
+import com.digitalasset.quickstart.config.OrderBookConfig;
+import com.digitalasset.quickstart.pqs.BenchmarkPqs;
+import com.digitalasset.quickstart.repository.DamlRepository;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import quickstart_licensing.loan.marketmaker.BorrowerAsk;
+import quickstart_licensing.loan.marketmaker.LenderBid;
+
+/**
+ * Builds the order book from a PQS holding {@code orders} LenderBids and as many BorrowerAsks, three ways:
+ * GROUP BY in Postgres ({@code order-book.aggregation=sql}), streaming projected fields and summing in Java
+ * ({@code order-book.aggregation=java}), and decoding every payload and summing in Java (the original path).
+ *
+ * <p>Needs a scratch Postgres, see {@link BenchmarkPqs}:
+ * {@code BENCH_JDBC_URL=jdbc:postgresql://localhost:5432/bench ./gradlew :backend:jmh -Pjmh=OrderBookAggregation}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderBookAggregationBenchmark {
+
+    @Param({"10000", "100000"})
+    int orders;
+
+    private BenchmarkPqs db;
+    private DamlRepository repository;
+    private OrderBookService sqlAggregation;
+    private OrderBookService javaAggregation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        db = BenchmarkPqs.open();
+        // 25 rate levels x 4 durations, so the book has 100 tiers per side at most
+        db.insert(LenderBid.class, orders, i -> """
+                {"lender":"lender-%d::1220","platformOperator":"platform::1220","amount":"1000.0",\
+                "remainingAmount":"%d.0","minInterestRate":"0.%03d","maxDuration":"%d","createdAt":"2026-01-01T00:00:00Z"}"""
+                .formatted(i % 500, 100 + i % 900, 40 + i % 25, 30 * (1 + i % 4)));
+        db.insert(BorrowerAsk.class, orders, i -> """
+                {"borrower":"borrower-%d::1220","platformOperator":"platform::1220","amount":"%d.0",\
+                "maxInterestRate":"0.%03d","duration":"%d","createdAt":"2026-01-01T00:00:00Z"}"""
+                .formatted(i % 500, 100 + i % 900, 50 + i % 25, 30 * (1 + i % 4)));
+        repository = db.repository();
+        sqlAggregation = orderBookService(OrderBookConfig.Aggregation.SQL);
+        javaAggregation = orderBookService(OrderBookConfig.Aggregation.JAVA);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public OrderBookService.OrderBook groupByInSql() {
+        return sqlAggregation.buildOrderBook().join();
+    }
+
+    @Benchmark
+    public OrderBookService.OrderBook projectedRowsSummedInJava() {
+        return javaAggregation.buildOrderBook().join();
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> decodedPayloadsSummedInJava() {
+        Map<String, BigDecimal> tiers = new HashMap<>();
+        repository.findActiveLenderBids().join().forEach(c -> tiers.merge(
+                "ask:" + c.payload.getMinInterestRate.toPlainString() + ":" + c.payload.getMaxDuration,
+                c.payload.getRemainingAmount, BigDecimal::add));
+        repository.findActiveBorrowerAsks().join().forEach(c -> tiers.merge(
+                "bid:" + c.payload.getMaxInterestRate.toPlainString() + ":" + c.payload.getDuration,
+                c.payload.getAmount, BigDecimal::add));
+        return tiers;
+    }
+
+    private OrderBookService orderBookService(OrderBookConfig.Aggregation aggregation) {
+        var config = new OrderBookConfig();
+        config.setAggregation(aggregation);
+        return new OrderBookService(repository, db.changeWatcher(), db.pqsConfig(), config);
+    }
+}
@@ -0,0 +1,101 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.service;
+
+import static com.digitalasset.quickstart.service.OrderFixtures.ask;
+import static com.digitalasset.quickstart.service.OrderFixtures.bid;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.digitalasset.quickstart.pqs.Contract;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import quickstart_licensing.loan.marketmaker.BorrowerAsk;
+import quickstart_licensing.loan.marketmaker.LenderBid;
+
+/**
+ * Cycles needed to drain a deep book, with every planned match accepted by a simulated ledger that applies
+ * MatchOrdersBatch semantics: each ask is consumed, a bid is archived and, on a partial fill, replaced by a
+ * remainder bid. The baseline only submits each bid's first match per cycle, as the engine did before.
+ */
+class OrderBookDrainTest {
+
+    @ParameterizedTest(name = "{0} bid(s) of {1} against {2} asks of {3}")
+    @CsvSource({
+            "1, 100000, 1000, 100",
+            "10, 10000, 1000, 100",
+            "100, 1000, 10000, 10",
+    })
+    void deepBookDrainsInOneCycle(int bidCount, int bidAmount, int askCount, int askAmount) {
+        int cycles = cyclesToDrain(bidCount, bidAmount, askCount, askAmount, UnaryOperator.identity());
+        int baseline = cyclesToDrain(bidCount, bidAmount, askCount, askAmount, OrderBookDrainTest::firstMatchPerBid);
+
+        assertThat(cycles).isEqualTo(1);
+        assertThat(baseline).isEqualTo(askCount / bidCount);
+    }
+
+    private static int cyclesToDrain(int bidCount, int bidAmount, int askCount, int askAmount,
+                                     UnaryOperator<List<OrderBookIndex.Match>> submitted) {
+        OrderBookIndex index = new OrderBookIndex();
+        List<Contract<LenderBid>> bids = new ArrayList<>();
+        for (int i = 0; i < bidCount; i++) {
+            bids.add(bid("b" + i, "0.05", 30, String.valueOf(bidAmount), i));
+        }
+        List<Contract<BorrowerAsk>> asks = new ArrayList<>();
+        for (int i = 0; i < askCount; i++) {
+            asks.add(ask("a" + i, "0.06", 30, String.valueOf(askAmount), i));
+        }
+        index.applyBids(bids, Set.of());
+        index.applyAsks(asks, Set.of());
+
+        int cycles = 0;
+        while (true) {
+            List<OrderBookIndex.Match> plan = index.planMatches();
+            if (plan.isEmpty()) {
+                break;
+            }
+            cycles++;
+            List<OrderBookIndex.Match> accepted = submitted.apply(plan);
+            plan.stream().filter(m -> !accepted.contains(m)).forEach(index::release);
+            settle(index, accepted, cycles);
+        }
+        assertThat(index.restingAsks()).isZero();
+        return cycles;
+    }
+
+    /** Applies the accepted matches the way MatchOrdersBatch does and feeds the result back as PQS deltas. */
+    private static void settle(OrderBookIndex index, List<OrderBookIndex.Match> accepted, int cycle) {
+        Map<Contract<LenderBid>, BigDecimal> remaining = new LinkedHashMap<>();
+        Set<String> archivedAsks = new HashSet<>();
+        for (var match : accepted) {
+            BigDecimal left = remaining.getOrDefault(match.bid(), match.bid().payload.getRemainingAmount);
+            remaining.put(match.bid(), left.subtract(left.min(match.ask().payload.getAmount)));
+            archivedAsks.add(match.ask().contractId.getContractId);
+        }
+        List<Contract<LenderBid>> remainders = new ArrayList<>();
+        Set<String> archivedBids = new HashSet<>();
+        remaining.forEach((bid, left) -> {
+            archivedBids.add(bid.contractId.getContractId);
+            if (left.signum() > 0) {
+                remainders.add(bid(bid.contractId.getContractId + "/" + cycle, "0.05", 30, left.toPlainString(),
+                        bid.payload.getCreatedAt.getEpochSecond()));
+            }
+        });
+        index.applyAsks(List.of(), archivedAsks);
+        index.applyBids(remainders, archivedBids);
+    }
+
+    private static List<OrderBookIndex.Match> firstMatchPerBid(List<OrderBookIndex.Match> plan) {
+        Map<String, OrderBookIndex.Match> first = new LinkedHashMap<>();
+        plan.forEach(m -> first.putIfAbsent(m.bid().contractId.getContractId, m));
+        return new ArrayList<>(first.values());
+    }
+}
@@ -0,0 +1,134 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.service;
+
+import static com.digitalasset.quickstart.service.OrderFixtures.ask;
+import static com.digitalasset.quickstart.service.OrderFixtures.bid;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class OrderBookIndexTest {
+
+    private final OrderBookIndex index = new OrderBookIndex();
+
+    @Test
+    void bidTakesTheHighestCrossingAskFirst() {
+        index.applyAsks(List.of(ask("a6", "0.06", 30, "100", 1), ask("a7", "0.07", 30, "100", 2)), Set.of());
+        index.applyBids(List.of(bid("b", "0.05", 30, "100", 3)), Set.of());
+
+        assertThat(pairs(index.planMatches())).containsExactly("b>a7");
+    }
+
+    @Test
+    void nothingMatchesWhenTheBookDoesNotCross() {
+        index.applyAsks(List.of(ask("a", "0.04", 30, "100", 1)), Set.of());
+        index.applyBids(List.of(bid("b", "0.05", 30, "100", 2)), Set.of());
+
+        assertThat(index.planMatches()).isEmpty();
+        assertThat(index.restingBids()).isEqualTo(1);
+        assertThat(index.restingAsks()).isEqualTo(1);
+    }
+
+    @Test
+    void askLongerThanTheBidsMaxDurationIsSkipped() {
+        index.applyAsks(List.of(ask("long", "0.08", 90, "100", 1), ask("short", "0.06", 30, "100", 2)), Set.of());
+        index.applyBids(List.of(bid("b", "0.05", 60, "100", 3)), Set.of());
+
+        assertThat(pairs(index.planMatches())).containsExactly("b>short");
+    }
+
+    @Test
+    void earlierAskWinsWithinABucketRegardlessOfArrivalOrder() {
+        index.applyAsks(List.of(ask("late", "0.06", 30, "100", 20)), Set.of());
+        index.applyAsks(List.of(ask("early", "0.06", 30, "100", 10)), Set.of());
+        index.applyBids(List.of(bid("b", "0.05", 30, "100", 30)), Set.of());
+
+        assertThat(pairs(index.planMatches())).containsExactly("b>early");
+    }
+
+    @Test
+    void lowerRateBidsAreVisitedFirstAndEachAskMatchesOnce() {
+        index.applyAsks(List.of(ask("a", "0.06", 30, "100", 1)), Set.of());
+        index.applyBids(List.of(bid("b5", "0.05", 30, "100", 3), bid("b4", "0.04", 30, "100", 2)), Set.of());
+
+        assertThat(pairs(index.planMatches())).containsExactly("b4>a");
+    }
+
+    @Test
+    void bidIsPartiallyFilledAcrossSeveralAsks() {
+        index.applyAsks(List.of(
+                ask("a1", "0.06", 30, "40", 1),
+                ask("a2", "0.06", 30, "30", 2),
+                ask("a3", "0.06", 30, "50", 3),
+                ask("a4", "0.06", 30, "50", 4)), Set.of());
+        index.applyBids(List.of(bid("b", "0.05", 30, "100", 5)), Set.of());
+
+        // 40 + 30 leave 30 of the bid, which a3 takes; a4 stays resting.
+        assertThat(pairs(index.planMatches())).containsExactly("b>a1", "b>a2", "b>a3");
+        assertThat(index.restingBids()).isZero();
+        assertThat(index.restingAsks()).isEqualTo(1);
+    }
+
+    @Test
+    void plannedOrdersAreReservedUntilReleased() {
+        index.applyAsks(List.of(ask("a", "0.06", 30, "100", 1)), Set.of());
+        index.applyBids(List.of(bid("b", "0.05", 30, "100", 2)), Set.of());
+
+        var plan = index.planMatches();
+        assertThat(pairs(plan)).containsExactly("b>a");
+        assertThat(index.planMatches()).isEmpty();
+
+        plan.forEach(index::release);
+        assertThat(pairs(index.planMatches())).containsExactly("b>a");
+    }
+
+    @Test
+    void releasedAskKeepsItsTimePriority() {
+        index.applyAsks(List.of(ask("first", "0.06", 30, "100", 1), ask("second", "0.06", 30, "100", 2)), Set.of());
+        index.applyBids(List.of(bid("b", "0.05", 30, "100", 3)), Set.of());
+
+        var plan = index.planMatches();
+        assertThat(pairs(plan)).containsExactly("b>first");
+        plan.forEach(index::release);
+
+        assertThat(pairs(index.planMatches())).containsExactly("b>first");
+    }
+
+    @Test
+    void releaseDoesNotResurrectArchivedOrders() {
+        index.applyAsks(List.of(ask("a", "0.06", 30, "100", 1)), Set.of());
+        index.applyBids(List.of(bid("b", "0.05", 30, "100", 2)), Set.of());
+
+        var plan = index.planMatches();
+        index.applyAsks(List.of(), Set.of("a"));
+        index.applyBids(List.of(), Set.of("b"));
+        plan.forEach(index::release);
+
+        assertThat(index.restingBids()).isZero();
+        assertThat(index.restingAsks()).isZero();
+        assertThat(index.planMatches()).isEmpty();
+    }
+
+    @Test
+    void remainderOfAPartiallyFilledBidMatchesInTheNextCycle() {
+        index.applyAsks(List.of(ask("a1", "0.06", 30, "60", 1)), Set.of());
+        index.applyBids(List.of(bid("b", "0.05", 30, "100", 2)), Set.of());
+        assertThat(pairs(index.planMatches())).containsExactly("b>a1");
+
+        // The ledger archives both orders and creates the bid's remainder.
+        index.applyAsks(List.of(ask("a2", "0.06", 30, "40", 3)), Set.of("a1"));
+        index.applyBids(List.of(bid("b-rest", "0.05", 30, "40", 2)), Set.of("b"));
+
+        assertThat(pairs(index.planMatches())).containsExactly("b-rest>a2");
+    }
+
+    private static List<String> pairs(List<OrderBookIndex.Match> matches) {
+        return matches.stream()
+                .map(m -> m.bid().contractId.getContractId + ">" + m.ask().contractId.getContractId)
+                .toList();
+    }
+}
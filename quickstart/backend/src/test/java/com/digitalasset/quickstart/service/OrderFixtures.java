@@ -0,0 +1,42 @@
+// Copyright (c) 2026, Digital Asset (Switzerland) GmbH and/or its affiliates. All rights reserved.
+// SPDX-License-Identifier: 0BSD
+
+package com.digitalasset.quickstart.service;
+
+import com.digitalasset.quickstart.pqs.Contract;
+import com.digitalasset.transcode.java.ContractId;
+import com.digitalasset.transcode.java.Party;
+import java.math.BigDecimal;
+import java.time.Instant;
+import quickstart_licensing.loan.marketmaker.BorrowerAsk;
+import quickstart_licensing.loan.marketmaker.LenderBid;
+
+/** Order contracts for order book tests; {@code createdAt} is given in seconds since the epoch. */
+final class OrderFixtures {
+
+    static final String PLATFORM = "platform::1220";
+
+    private OrderFixtures() {
+    }
+
+    static Contract<LenderBid> bid(String id, String minRate, long maxDuration, String remaining, long createdAt) {
+        return new Contract<>(new ContractId<>(id), new LenderBid(
+                new Party("lender::1220"),
+                new Party(PLATFORM),
+                new BigDecimal(remaining),
+                new BigDecimal(remaining),
+                new BigDecimal(minRate),
+                maxDuration,
+                Instant.ofEpochSecond(createdAt)));
+    }
+
+    static Contract<BorrowerAsk> ask(String id, String maxRate, long duration, String amount, long createdAt) {
+        return new Contract<>(new ContractId<>(id), new BorrowerAsk(
+                new Party("borrower::1220"),
+                new Party(PLATFORM),
+                new BigDecimal(amount),
+                new BigDecimal(maxRate),
+                duration,
+                Instant.ofEpochSecond(createdAt)));
+    }
+}
@@ -11,6 +11,7 @@ import { MarketDepth } from "@/components/denver/market-depth"
 import { OrderBook } from "@/components/denver/order-book"
 import { CreditScoreCard } from "@/components/denver/credit-score-card"
 import { useDenverData } from "@/hooks/use-denver-data"
+import { useLiveOrderBook } from "@/hooks/use-live-order-book"
 import { Button } from "@/components/ui/button"
 import { Input } from "@/components/ui/input"
 import { Label } from "@/components/ui/label"
@@ -68,6 +69,7 @@ export default function DenverLendingApp() {
     requestRepayment,
     completeRepayment,
   } = useDenverData()
+  const liveOrderBook = useLiveOrderBook(orderBook, activeView === "orderbook")
 
   useEffect(() => {
     if (walletDialogOpen) setWalletInput(walletUrl ?? "")
@@ -341,8 +343,12 @@ export default function DenverLendingApp() {
 
             {activeView === "orderbook" && (
               <div className="flex flex-col gap-10">
-                <OrderBook orderBookData={orderBook} />
-                <MarketDepth orderBookData={orderBook} />
+                <OrderBook
+                  orderBookData={liveOrderBook.orderBook}
+                  updateError={liveOrderBook.updateError}
+                  onRefresh={liveOrderBook.refresh}
+                />
+                <MarketDepth orderBookData={liveOrderBook.orderBook} />
               </div>
             )}
 
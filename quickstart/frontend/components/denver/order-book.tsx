@@ -1,12 +1,11 @@
 "use client"
 
-import { useEffect, useState, useMemo } from "react"
+import { useState, useMemo } from "react"
 import { motion } from "motion/react"
 import { cn } from "@/lib/utils"
 import { Skeleton } from "@/components/ui/skeleton"
 import { ArrowUpDown, TrendingUp, TrendingDown, BarChart3, RefreshCw, AlertCircle } from "lucide-react"
 import type { ApiOrderBookResponse, ApiOrderBookTier } from "@/lib/api-types"
-import { getOrderBook } from "@/lib/api"
 
 function formatCurrency(amount: number) {
   if (amount >= 1000000) return `$${(amount / 1000000).toFixed(1)}M`
@@ -71,49 +70,16 @@ function OrderBookHalf({
 
 export function OrderBook({
   orderBookData,
+  updateError = false,
+  onRefresh,
 }: {
   orderBookData: ApiOrderBookResponse | null
+  updateError?: boolean
+  onRefresh?: () => Promise<void>
 }) {
-  const [liveData, setLiveData] = useState<ApiOrderBookResponse | null>(orderBookData)
   const [refreshing, setRefreshing] = useState(false)
-  const [pollError, setPollError] = useState(false)
 
-  useEffect(() => {
-    let cancelled = false
-    let inflight = false
-    const poll = async () => {
-      if (inflight) return
-      inflight = true
-      try {
-        const data = await getOrderBook()
-        if (!cancelled) {
-          if (data) {
-            setLiveData(data)
-            setPollError(false)
-          } else {
-            setPollError(true)
-          }
-        }
-      } catch {
-        if (!cancelled) setPollError(true)
-      } finally {
-        inflight = false
-      }
-    }
-    poll()
-    const interval = setInterval(poll, 5000)
-    return () => {
-      cancelled = true
-      clearInterval(interval)
-    }
-  }, [])
-
-  // Also update when prop changes
-  useEffect(() => {
-    if (orderBookData) setLiveData(orderBookData)
-  }, [orderBookData])
-
-  const data = liveData
+  const data = orderBookData
 
   const asks = useMemo(() => data?.asks ?? [], [data])
   const bids = useMemo(() => data?.bids ?? [], [data])
@@ -139,12 +105,9 @@ export function OrderBook({
   const spread = data?.spread
 
   const handleRefresh = async () => {
+    if (!onRefresh) return
     setRefreshing(true)
-    const fresh = await getOrderBook()
-    if (fresh) {
-      setLiveData(fresh)
-      setPollError(false)
-    }
+    await onRefresh()
     setRefreshing(false)
   }
 
@@ -159,7 +122,7 @@ export function OrderBook({
           </p>
         </div>
         <div className="flex items-center gap-3">
-          {pollError && (
+          {updateError && (
             <span className="flex items-center gap-1.5 text-xs text-destructive">
               <AlertCircle className="size-3" />
               Update failed
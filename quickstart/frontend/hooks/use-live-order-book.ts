@@ -0,0 +1,75 @@
+"use client"
+
+import { useState, useEffect, useCallback } from "react"
+import type { ApiOrderBookResponse } from "@/lib/api-types"
+import { getOrderBook, subscribeOrderBook } from "@/lib/api"
+
+const POLL_INTERVAL_MS = 5000
+
+/**
+ * Live order book: while enabled, follows the server-pushed stream and falls back to
+ * polling GET /orderbook when the stream is unavailable.
+ */
+export function useLiveOrderBook(initial: ApiOrderBookResponse | null, enabled = true) {
+  const [orderBook, setOrderBook] = useState<ApiOrderBookResponse | null>(initial)
+  const [updateError, setUpdateError] = useState(false)
+
+  useEffect(() => {
+    if (initial) setOrderBook(initial)
+  }, [initial])
+
+  const refresh = useCallback(async () => {
+    const fresh = await getOrderBook()
+    if (fresh) {
+      setOrderBook(fresh)
+      setUpdateError(false)
+    } else {
+      setUpdateError(true)
+    }
+  }, [])
+
+  useEffect(() => {
+    if (!enabled) return
+    let cancelled = false
+    let interval: ReturnType<typeof setInterval> | null = null
+    let inflight = false
+
+    const poll = async () => {
+      if (inflight) return
+      inflight = true
+      try {
+        const data = await getOrderBook()
+        if (cancelled) return
+        if (data) {
+          setOrderBook(data)
+          setUpdateError(false)
+        } else {
+          setUpdateError(true)
+        }
+      } finally {
+        inflight = false
+      }
+    }
+
+    const unsubscribe = subscribeOrderBook(
+      (book) => {
+        if (cancelled) return
+        setOrderBook(book)
+        setUpdateError(false)
+      },
+      () => {
+        if (cancelled || interval) return
+        poll()
+        interval = setInterval(poll, POLL_INTERVAL_MS)
+      }
+    )
+
+    return () => {
+      cancelled = true
+      unsubscribe()
+      if (interval) clearInterval(interval)
+    }
+  }, [enabled])
+
+  return { orderBook, updateError, refresh }
+}
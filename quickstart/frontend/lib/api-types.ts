@@ -203,3 +203,10 @@ export interface ApiOrderBookResponse {
   bids: ApiOrderBookTier[]
   spread: number | null
 }
+
+/** Tier changes pushed by /orderbook/stream; a tier with orderCount 0 was removed. */
+export interface ApiOrderBookDelta {
+  asks: ApiOrderBookTier[]
+  bids: ApiOrderBookTier[]
+  spread: number | null
+}
@@ -25,6 +25,8 @@ import type {
   LenderBidCreate,
   BorrowerAskCreate,
   ApiOrderBookResponse,
+  ApiOrderBookDelta,
+  ApiOrderBookTier,
   AcceptOfferWithTokenRequest,
   ApiFundingIntent,
   ApiPrincipalRequest,
@@ -526,3 +528,55 @@ export async function getOrderBook(): Promise<ApiOrderBookResponse | null> {
     return null
   }
 }
+
+function applyTierChanges(tiers: ApiOrderBookTier[], changes: ApiOrderBookTier[]): ApiOrderBookTier[] {
+  const key = (t: ApiOrderBookTier) => `${t.interestRate}:${t.duration}`
+  const byKey = new Map(tiers.map((t) => [key(t), t]))
+  for (const change of changes) {
+    if (change.orderCount === 0) byKey.delete(key(change))
+    else byKey.set(key(change), change)
+  }
+  return [...byKey.values()]
+}
+
+/** Apply a pushed delta to the previous order book. */
+export function applyOrderBookDelta(book: ApiOrderBookResponse, delta: ApiOrderBookDelta): ApiOrderBookResponse {
+  return {
+    asks: applyTierChanges(book.asks, delta.asks).sort((a, b) => a.interestRate - b.interestRate),
+    bids: applyTierChanges(book.bids, delta.bids).sort((a, b) => b.interestRate - a.interestRate),
+    spread: delta.spread ?? null,
+  }
+}
+
+/**
+ * Subscribe to the order book stream (public endpoint, no auth required).
+ * Calls onUpdate with the full book after the initial snapshot and after every delta.
+ * onClosed is called if the stream is unavailable and the browser gave up reconnecting.
+ * Returns a function that closes the stream.
+ */
+export function subscribeOrderBook(
+  onUpdate: (book: ApiOrderBookResponse) => void,
+  onClosed: () => void
+): () => void {
+  if (typeof EventSource === "undefined") {
+    onClosed()
+    return () => {}
+  }
+  const source = new EventSource(`${API_BASE}/orderbook/stream`, { withCredentials: true })
+  let book: ApiOrderBookResponse | null = null
+  source.addEventListener("snapshot", (e) => {
+    book = JSON.parse((e as MessageEvent).data) as ApiOrderBookResponse
+    onUpdate(book)
+  })
+  source.addEventListener("delta", (e) => {
+    if (!book) return
+    book = applyOrderBookDelta(book, JSON.parse((e as MessageEvent).data) as ApiOrderBookDelta)
+    onUpdate(book)
+  })
+  source.onerror = () => {
+    // A reconnect starts with a fresh snapshot; only give up once the browser does.
+    book = null
+    if (source.readyState === EventSource.CLOSED) onClosed()
+  }
+  return () => source.close()
+}
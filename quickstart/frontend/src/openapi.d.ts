@@ -10,6 +10,8 @@ declare namespace Components {
     namespace Parameters {
         export type CommandId = string;
         export type ContractId = string;
+        export type Cursor = string;
+        export type Limit = number;
         export type TenantId = string;
     }
     export interface PathParameters {
@@ -18,6 +20,8 @@ declare namespace Components {
     }
     export interface QueryParameters {
         CommandId?: Parameters.CommandId;
+        Cursor?: Parameters.Cursor;
+        Limit?: Parameters.Limit;
     }
     namespace Responses {
         export type BadRequest = Schemas.ErrorResponse;
@@ -653,6 +657,14 @@ declare namespace Paths {
         }
     }
     namespace ListAppInstalls {
+        namespace Parameters {
+            export type Cursor = string;
+            export type Limit = number;
+        }
+        export interface QueryParameters {
+            limit?: Parameters.Limit;
+            cursor?: Parameters.Cursor;
+        }
         namespace Responses {
             export type $200 = Components.Schemas.AppInstall[];
             export type $401 = Components.Responses.Unauthorized;
@@ -667,6 +679,14 @@ declare namespace Paths {
         }
     }
     namespace ListLicenses {
+        namespace Parameters {
+            export type Cursor = string;
+            export type Limit = number;
+        }
+        export interface QueryParameters {
+            limit?: Parameters.Limit;
+            cursor?: Parameters.Cursor;
+        }
         namespace Responses {
             export type $200 = Components.Schemas.License[];
             export type $401 = Components.Responses.Unauthorized;
@@ -680,6 +700,14 @@ declare namespace Paths {
         }
     }
     namespace ListLoanOffers {
+        namespace Parameters {
+            export type Cursor = string;
+            export type Limit = number;
+        }
+        export interface QueryParameters {
+            limit?: Parameters.Limit;
+            cursor?: Parameters.Cursor;
+        }
         namespace Responses {
             export type $200 = Components.Schemas.LoanOffer[];
             export type $401 = Components.Responses.Unauthorized;
@@ -687,6 +715,14 @@ declare namespace Paths {
         }
     }
     namespace ListLoanRequests {
+        namespace Parameters {
+            export type Cursor = string;
+            export type Limit = number;
+        }
+        export interface QueryParameters {
+            limit?: Parameters.Limit;
+            cursor?: Parameters.Cursor;
+        }
         namespace Responses {
             export type $200 = Components.Schemas.LoanRequest[];
             export type $401 = Components.Responses.Unauthorized;
@@ -694,6 +730,14 @@ declare namespace Paths {
         }
     }
     namespace ListLoans {
+        namespace Parameters {
+            export type Cursor = string;
+            export type Limit = number;
+        }
+        export interface QueryParameters {
+            limit?: Parameters.Limit;
+            cursor?: Parameters.Cursor;
+        }
         namespace Responses {
             export type $200 = Components.Schemas.Loan[];
             export type $401 = Components.Responses.Unauthorized;
@@ -903,7 +947,7 @@ export interface OperationMethods {
    * listAppInstalls - List all AppInstalls
    */
   'listAppInstalls'(
-    parameters?: Parameters<UnknownParamsObject> | null,
+    parameters?: Parameters<Paths.ListAppInstalls.QueryParameters> | null,
     data?: any,
     config?: AxiosRequestConfig  
   ): OperationResponse<Paths.ListAppInstalls.Responses.$200>
@@ -927,7 +971,7 @@ export interface OperationMethods {
    * listLicenses - List all Licenses (including renewal requests)
    */
   'listLicenses'(
-    parameters?: Parameters<UnknownParamsObject> | null,
+    parameters?: Parameters<Paths.ListLicenses.QueryParameters> | null,
     data?: any,
     config?: AxiosRequestConfig  
   ): OperationResponse<Paths.ListLicenses.Responses.$200>
@@ -1063,7 +1107,7 @@ export interface OperationMethods {
    * listLoanRequests - List loan requests (borrower)
    */
   'listLoanRequests'(
-    parameters?: Parameters<UnknownParamsObject> | null,
+    parameters?: Parameters<Paths.ListLoanRequests.QueryParameters> | null,
     data?: any,
     config?: AxiosRequestConfig  
   ): OperationResponse<Paths.ListLoanRequests.Responses.$200>
@@ -1071,7 +1115,7 @@ export interface OperationMethods {
    * listLoanOffers - List loan offers visible to the authenticated party (lender or borrower)
    */
   'listLoanOffers'(
-    parameters?: Parameters<UnknownParamsObject> | null,
+    parameters?: Parameters<Paths.ListLoanOffers.QueryParameters> | null,
     data?: any,
     config?: AxiosRequestConfig  
   ): OperationResponse<Paths.ListLoanOffers.Responses.$200>
@@ -1079,7 +1123,7 @@ export interface OperationMethods {
    * listLoans - List loans visible to the authenticated party
    */
   'listLoans'(
-    parameters?: Parameters<UnknownParamsObject> | null,
+    parameters?: Parameters<Paths.ListLoans.QueryParameters> | null,
     data?: any,
     config?: AxiosRequestConfig  
   ): OperationResponse<Paths.ListLoans.Responses.$200>
@@ -1187,7 +1231,7 @@ export interface PathsDictionary {
      * listAppInstalls - List all AppInstalls
      */
     'get'(
-      parameters?: Parameters<UnknownParamsObject> | null,
+      parameters?: Parameters<Paths.ListAppInstalls.QueryParameters> | null,
       data?: any,
       config?: AxiosRequestConfig  
     ): OperationResponse<Paths.ListAppInstalls.Responses.$200>
@@ -1217,7 +1261,7 @@ export interface PathsDictionary {
      * listLicenses - List all Licenses (including renewal requests)
      */
     'get'(
-      parameters?: Parameters<UnknownParamsObject> | null,
+      parameters?: Parameters<Paths.ListLicenses.QueryParameters> | null,
       data?: any,
       config?: AxiosRequestConfig  
     ): OperationResponse<Paths.ListLicenses.Responses.$200>
@@ -1387,7 +1431,7 @@ export interface PathsDictionary {
      * listLoanRequests - List loan requests (borrower)
      */
     'get'(
-      parameters?: Parameters<UnknownParamsObject> | null,
+      parameters?: Parameters<Paths.ListLoanRequests.QueryParameters> | null,
       data?: any,
       config?: AxiosRequestConfig  
     ): OperationResponse<Paths.ListLoanRequests.Responses.$200>
@@ -1397,7 +1441,7 @@ export interface PathsDictionary {
      * listLoanOffers - List loan offers visible to the authenticated party (lender or borrower)
      */
     'get'(
-      parameters?: Parameters<UnknownParamsObject> | null,
+      parameters?: Parameters<Paths.ListLoanOffers.QueryParameters> | null,
       data?: any,
       config?: AxiosRequestConfig  
     ): OperationResponse<Paths.ListLoanOffers.Responses.$200>
@@ -1407,7 +1451,7 @@ export interface PathsDictionary {
      * listLoans - List loans visible to the authenticated party
      */
     'get'(
-      parameters?: Parameters<UnknownParamsObject> | null,
+      parameters?: Parameters<Paths.ListLoans.QueryParameters> | null,
       data?: any,
       config?: AxiosRequestConfig  
     ): OperationResponse<Paths.ListLoans.Responses.$200>